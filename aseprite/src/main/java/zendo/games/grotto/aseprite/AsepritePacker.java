@@ -14,6 +14,7 @@ import zendo.games.grotto.sprites.SpriteInfo;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 
 public class AsepritePacker extends ApplicationAdapter {
 
@@ -39,16 +40,18 @@ public class AsepritePacker extends ApplicationAdapter {
         String atlasOutputDir   = null;
         String spriteOutputDir  = null;
         String atlasFileName    = "sprites.atlas";
+        String[] imageInputDirs = new String[0];
 
-        // parse out pack params from args
-        switch (args.length) {
+        // parse out pack params from args, anything after the first four is a dir of plain images to pack in too
+        switch (Math.min(args.length, 5)) {
+            case 5: imageInputDirs   = Arrays.copyOfRange(args, 4, args.length);
             case 4: atlasFileName    = args[3];
             case 3: atlasOutputDir   = args[2];
             case 2: spriteOutputDir  = args[1];
             case 1: asepriteInputDir = args[0];
                 break;
             default: {
-                System.out.println(tag + " Usage: inputDir [spriteOutputDir] [packOutputDir] [packFileName]");
+                System.out.println(tag + " Usage: inputDir [spriteOutputDir] [packOutputDir] [packFileName] [imageDir...]");
                 System.exit(0);
             }
         }
@@ -75,10 +78,11 @@ public class AsepritePacker extends ApplicationAdapter {
                 + "\n\tspriteOutputDir = " + spriteOutputDir
                 + "\n\tatlasOutputDir = " + atlasOutputDir
                 + "\n\tatlasFileName = " + atlasFileName
+                + "\n\timageInputDirs = " + Arrays.toString(imageInputDirs)
         );
 
         try {
-            process(asepriteInputDir, spriteOutputDir, atlasOutputDir, atlasFileName);
+            process(asepriteInputDir, spriteOutputDir, atlasOutputDir, atlasFileName, imageInputDirs);
         } catch (IOException e) {
             Gdx.app.error(tag, "Failed to pack atlas from aseprite files", e);
         }
@@ -86,14 +90,17 @@ public class AsepritePacker extends ApplicationAdapter {
         Gdx.app.exit();
     }
 
-    private void process(String inputDir, String spriteOutputDir, String atlasOutputDir, String atlasFileName) throws IOException {
+    private void process(String inputDir, String spriteOutputDir, String atlasOutputDir, String atlasFileName, String[] imageInputDirs) throws IOException {
         // configure a pixmap packer
         // TODO: maybe optionally pass some of these as args?
-        int pageWidth = 1024;
-        int pageHeight = 1024;
+        // when packing plain images too, use pages as big as the tileset pack allows (some tilesets are over 1024 wide)
+        // and pad them the way the tileset pack does, so the shared atlas fits on as few pages as possible
+        boolean shared = imageInputDirs.length > 0;
+        int pageWidth = shared ? 4096 : 1024;
+        int pageHeight = shared ? 4096 : 1024;
         Pixmap.Format pageFormat = Pixmap.Format.RGBA8888;
-        int padding = 0;
-        boolean duplicateBorder = false;
+        int padding = shared ? 2 : 0;
+        boolean duplicateBorder = shared;
         boolean stripWhitespaceX = false;
         boolean stripWhitespaceY = false;
         PixmapPacker.PackStrategy packStrategy = new PixmapPacker.GuillotineStrategy();
@@ -110,6 +117,11 @@ public class AsepritePacker extends ApplicationAdapter {
                     Gdx.files.getFileHandle(spriteOutputDir + "/" + spriteInfo.name + ".json", Files.FileType.Absolute));
         }
 
+        // pack plain images onto the same pages, so everything can be drawn without switching textures
+        for (String imageDir : imageInputDirs) {
+            packImages(packer, Gdx.files.internal(imageDir), "");
+        }
+
         // write out texture atlas files to system
         FileHandle outFileHandle = Gdx.files.getFileHandle(atlasOutputDir + "/" + atlasFileName, Files.FileType.Absolute);
         PixmapPackerIO packerIO = new PixmapPackerIO();
@@ -120,4 +132,20 @@ public class AsepritePacker extends ApplicationAdapter {
         Gdx.app.log(tag, "Processing complete");
     }
 
+    /**
+     * Pack every png under dir, named by its path relative to the starting dir without the extension,
+     * which matches the region names that TexturePacker gives them (eg. for the tileset and raw sprite atlases)
+     */
+    private void packImages(PixmapPacker packer, FileHandle dir, String prefix) {
+        for (FileHandle file : dir.list()) {
+            if (file.isDirectory()) {
+                packImages(packer, file, prefix + file.name() + "/");
+            } else if (file.extension().equalsIgnoreCase("png")) {
+                Pixmap pixmap = new Pixmap(file);
+                packer.pack(prefix + file.nameWithoutExtension(), pixmap);
+                pixmap.dispose();
+            }
+        }
+    }
+
 }
@@ -0,0 +1,97 @@
+package zendo.games.grotto.bench;
+
+import org.openjdk.jmh.annotations.*;
+import zendo.games.grotto.components.Collider;
+import zendo.games.grotto.components.Collisions;
+import zendo.games.grotto.ecs.World;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Broadphase queries over the shipped rooms with a few thousand rect colliders scattered through them:
+ * a player sized probe calling check() at random spots, and a whole contact pass. Running this on
+ * a checkout from before the slot arrays gives the other side of the comparison.
+ *
+ *     gradlew :core:jmh -Pbenchmarks=CollisionQueryBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionQueryBenchmark {
+
+    private static final int probes = 4096;
+
+    private static final int[] masks = {
+            Collider.Mask.solid, Collider.Mask.jumpthru, Collider.Mask.enemy,
+            Collider.Mask.item, Collider.Mask.player_attack, Collider.Mask.enemy | Collider.Mask.moving_solid
+    };
+
+    @Param({"3000"})
+    public int colliders;
+
+    @Param({"true", "false"})
+    public boolean broadphase;
+
+    private Collisions collisions;
+    private Collider probe;
+    private final int[] spots = new int[probes * 2];
+    private int next;
+
+    @Setup
+    public void setup() {
+        Collisions.use_broadphase = broadphase;
+
+        var world = new World();
+        var rooms = Rooms.load("world-0.world");
+        Rooms.spawn(world, rooms);
+
+        var random = new Random(11);
+        for (int i = 0; i < colliders; i++) {
+            var room = rooms.get(random.nextInt(rooms.size));
+            var entity = world.addEntity();
+            entity.position.set(room.x + random.nextInt(room.width()), room.y + random.nextInt(room.height()));
+            var collider = entity.add(Collider.class).rect(0, 0, 4 + random.nextInt(13), 4 + random.nextInt(13));
+            collider.mask(masks[random.nextInt(masks.length)]);
+            // like the pickups and hurtables, a quarter of them want contacts
+            if (random.nextInt(4) == 0) {
+                collider.contactMask(Collider.Mask.player | Collider.Mask.player_attack | Collider.Mask.enemy);
+            }
+        }
+
+        var player = world.addEntity();
+        probe = player.add(Collider.class).rect(-2, 0, 6, 12);
+        probe.mask(Collider.Mask.player);
+
+        for (int i = 0; i < probes; i++) {
+            var room = rooms.get(random.nextInt(rooms.size));
+            spots[i * 2]     = room.x + random.nextInt(room.width());
+            spots[i * 2 + 1] = room.y + random.nextInt(room.height());
+        }
+
+        world.update(1 / 60f);
+        collisions = world.collisions();
+    }
+
+    @TearDown
+    public void tearDown() {
+        Collisions.use_broadphase = true;
+    }
+
+    @Benchmark
+    public boolean check() {
+        var i = next;
+        next = (next + 2) % spots.length;
+        probe.entity().position.set(spots[i], spots[i + 1]);
+        return probe.check(Collider.Mask.solid | Collider.Mask.enemy, 0, 0) | probe.check(Collider.Mask.solid, 0, -1);
+    }
+
+    @Benchmark
+    public void contactPass() {
+        collisions.updateContacts();
+    }
+
+}
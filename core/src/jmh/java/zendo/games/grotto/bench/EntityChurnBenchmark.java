@@ -0,0 +1,93 @@
+package zendo.games.grotto.bench;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import org.openjdk.jmh.annotations.*;
+import zendo.games.grotto.components.Animator;
+import zendo.games.grotto.components.Timer;
+import zendo.games.grotto.ecs.Entity;
+import zendo.games.grotto.ecs.World;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A burst of short lived effect entities, shaped like EffectFactory.spriteAnimOneShot with an Animator
+ * and a Timer that destroys the entity when it runs out, but without a sprite so no assets are loaded.
+ * burst spawns them all and updates the world until the timers have destroyed every one, oldest first,
+ * clear spawns them and destroys them straight away in spawn order. Running this on a checkout from
+ * before the swap-remove gives the other side of the comparison.
+ *
+ *     gradlew :core:jmh -Pbenchmarks=EntityChurnBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityChurnBenchmark {
+
+    private static final float dt = 1 / 60f;
+
+    @Param({"10000"})
+    public int effects;
+
+    @Param({"true", "false"})
+    public boolean deferChanges;
+
+    private World world;
+    private Entity[] spawned;
+    private final Timer.OnEnd expire = (self) -> self.entity().destroy();
+
+    @Setup
+    public void setup() {
+        world = new World().deferChanges(deferChanges);
+        spawned = new Entity[effects];
+    }
+
+    @Benchmark
+    public int burst() {
+        // a quarter of a second's worth of effects, expiring over the following second
+        var perFrame = effects / 15 + 1;
+        var spawning = 0;
+        var frames = 0;
+        while (spawning < effects || world.firstEntity() != null) {
+            for (int i = 0; i < perFrame && spawning < effects; i++, spawning++) {
+                spawn(spawning).get(Timer.class).start(1f, expire);
+            }
+            world.update(dt);
+            frames++;
+        }
+        return frames;
+    }
+
+    @Benchmark
+    public int clear() {
+        for (int i = 0; i < effects; i++) {
+            spawned[i] = spawn(i);
+        }
+        for (int i = 0; i < effects; i++) {
+            spawned[i].destroy();
+            spawned[i] = null;
+        }
+        world.update(dt);
+        return check();
+    }
+
+    private Entity spawn(int i) {
+        var entity = world.addEntity();
+        entity.position.set(i % 320, i / 320);
+        var anim = entity.add(Animator.class);
+        anim.depth = 100;
+        entity.add(Timer.class);
+        return entity;
+    }
+
+    private int check() {
+        var entities = world.stats().entities;
+        if (entities != 0) {
+            throw new GdxRuntimeException(entities + " entities outlived their effect");
+        }
+        return entities;
+    }
+
+}
@@ -0,0 +1,73 @@
+package zendo.games.grotto.bench;
+
+import org.openjdk.jmh.annotations.*;
+import zendo.games.grotto.components.Collider;
+import zendo.games.grotto.components.Collisions;
+import zendo.games.grotto.ecs.World;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rect against grid overlap on the shipped rooms and nothing else, a probe of the given height
+ * (and half as wide) calling check() against the solid grids at random spots, so most of the time
+ * is spent testing grid cells. The probe stays put and the spots are passed as the check's offset,
+ * so nothing is re-bucketed between checks. Running this on a checkout from before the row bitsets
+ * gives the other side of the comparison.
+ *
+ *     gradlew :core:jmh -Pbenchmarks=GridOverlapBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridOverlapBenchmark {
+
+    private static final int probes = 4096;
+
+    // a player, and something boss sized
+    @Param({"12", "48"})
+    public int height;
+
+    private Collider probe;
+    private final int[] spots = new int[probes * 2];
+    private int next;
+
+    @Setup
+    public void setup() {
+        // only the grids, so there's nothing for the broadphase to cull
+        Collisions.use_broadphase = false;
+
+        var world = new World();
+        var rooms = Rooms.load("world-0.world");
+        Rooms.spawn(world, rooms);
+
+        var player = world.addEntity();
+        probe = player.add(Collider.class).rect(-height / 4, 0, height / 2, height);
+        probe.mask(Collider.Mask.player);
+
+        var random = new Random(4);
+        for (int i = 0; i < probes; i++) {
+            var room = rooms.get(random.nextInt(rooms.size));
+            spots[i * 2]     = room.x + random.nextInt(room.width());
+            spots[i * 2 + 1] = room.y + random.nextInt(room.height());
+        }
+
+        world.update(1 / 60f);
+    }
+
+    @TearDown
+    public void tearDown() {
+        Collisions.use_broadphase = true;
+    }
+
+    @Benchmark
+    public boolean check() {
+        var i = next;
+        next = (next + 2) % spots.length;
+        return probe.check(Collider.Mask.solid, spots[i], spots[i + 1]) | probe.check(Collider.Mask.solid, spots[i], spots[i + 1] - 1);
+    }
+
+}
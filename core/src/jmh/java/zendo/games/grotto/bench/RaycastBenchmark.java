@@ -0,0 +1,85 @@
+package zendo.games.grotto.bench;
+
+import org.openjdk.jmh.annotations.*;
+import zendo.games.grotto.components.Collider;
+import zendo.games.grotto.components.Collisions;
+import zendo.games.grotto.ecs.World;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rays per second through the shipped rooms, the score is in rays (or sight lines) per second.
+ * Rays start anywhere in a room and head off in any direction for up to 200px, much like the eye's sight line.
+ *
+ *     gradlew :core:jmh -Pbenchmarks=RaycastBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RaycastBenchmark {
+
+    private static final int count = 4096;
+    private static final float range = 200f;
+
+    @Param({"true", "false"})
+    public boolean broadphase;
+
+    private Collisions collisions;
+    private final Collisions.RaycastHit hit = new Collisions.RaycastHit();
+
+    // rays as (x, y, dx, dy), and sight lines as (x0, y0, x1, y1)
+    private final int[] rays = new int[count * 4];
+    private final int[] lines = new int[count * 4];
+    private int next;
+
+    @Setup
+    public void setup() {
+        Collisions.use_broadphase = broadphase;
+
+        var world = new World();
+        var rooms = Rooms.load("world-0.world");
+        Rooms.spawn(world, rooms);
+        world.update(1 / 60f);
+        collisions = world.collisions();
+
+        var random = new Random(10);
+        for (int i = 0; i < count; i++) {
+            var room = rooms.get(random.nextInt(rooms.size));
+            rays[i * 4]     = room.x + random.nextInt(room.width());
+            rays[i * 4 + 1] = room.y + random.nextInt(room.height());
+            do {
+                rays[i * 4 + 2] = random.nextInt(201) - 100;
+                rays[i * 4 + 3] = random.nextInt(201) - 100;
+            } while (rays[i * 4 + 2] == 0 && rays[i * 4 + 3] == 0);
+
+            lines[i * 4]     = room.x + random.nextInt(room.width());
+            lines[i * 4 + 1] = room.y + random.nextInt(room.height());
+            lines[i * 4 + 2] = room.x + random.nextInt(room.width());
+            lines[i * 4 + 3] = room.y + random.nextInt(room.height());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        Collisions.use_broadphase = true;
+    }
+
+    @Benchmark
+    public boolean raycast() {
+        var i = next;
+        next = (next + 4) % rays.length;
+        return collisions.raycast(rays[i], rays[i + 1], rays[i + 2], rays[i + 3], range, Collider.Mask.solid, hit);
+    }
+
+    @Benchmark
+    public boolean lineOfSight() {
+        var i = next;
+        next = (next + 4) % lines.length;
+        return collisions.lineOfSight(lines[i], lines[i + 1], lines[i + 2], lines[i + 3], Collider.Mask.solid, hit);
+    }
+
+}
@@ -0,0 +1,150 @@
+package zendo.games.grotto.bench;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Base64Coder;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.XmlReader;
+import zendo.games.grotto.components.Collider;
+import zendo.games.grotto.ecs.Entity;
+import zendo.games.grotto.ecs.World;
+
+import java.io.File;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * The collision layers of the shipped rooms, read straight from the Tiled files so benchmarks
+ * can put them in a World without a GL context or the rest of WorldMap's loading
+ */
+public class Rooms {
+
+    public static class Room {
+        public final String name;
+        public final int x;
+        public final int y;
+        public final int tileSize;
+        public final int cols;
+        public final int rows;
+        // 1 for a solid cell, indexed x + y * cols with y up from the bottom row like Collider.Grid
+        public final int[] cells;
+
+        Room(String name, int x, int y, int tileSize, int cols, int rows, int[] cells) {
+            this.name = name;
+            this.x = x;
+            this.y = y;
+            this.tileSize = tileSize;
+            this.cols = cols;
+            this.rows = rows;
+            this.cells = cells;
+        }
+
+        public int width() {
+            return cols * tileSize;
+        }
+
+        public int height() {
+            return rows * tileSize;
+        }
+    }
+
+    /**
+     * Read every room in the world file, from the levels folder set by -Dgrotto.levels
+     * or otherwise the assets folder next to the working directory
+     */
+    public static Array<Room> load(String worldFile) {
+        var levels = System.getProperty("grotto.levels");
+        var folder = new FileHandle(new File(levels != null ? levels : "../assets/levels"));
+        if (!folder.child(worldFile).exists()) {
+            folder = new FileHandle(new File("assets/levels"));
+        }
+        if (!folder.child(worldFile).exists()) {
+            throw new GdxRuntimeException("Couldn't find '" + worldFile + "', set -Dgrotto.levels to the levels folder");
+        }
+
+        var rooms = new Array<Room>();
+        var world = new JsonReader().parse(folder.child(worldFile));
+        for (var map : world.get("maps")) {
+            // same as WorldMap, the world file is y-down from the top left and the game is y-up from the bottom left
+            var x = map.getInt("x");
+            var y = -map.getInt("y") - map.getInt("height");
+            rooms.add(room(folder.child(map.getString("fileName")), x, y));
+        }
+        return rooms;
+    }
+
+    /**
+     * Add each room to the world as an entity with a solid grid collider, like WorldMap does
+     */
+    public static Array<Entity> spawn(World world, Array<Room> rooms) {
+        var entities = new Array<Entity>();
+        for (var room : rooms) {
+            var entity = world.addEntity();
+            entity.position.set(room.x, room.y);
+            var collider = entity.add(Collider.makeGrid(room.tileSize, room.cols, room.rows), Collider.class);
+            collider.mask(Collider.Mask.solid);
+            for (int y = 0; y < room.rows; y++) {
+                for (int x = 0; x < room.cols; x++) {
+                    if (room.cells[x + y * room.cols] == 1) {
+                        collider.setCell(x, y, true);
+                    }
+                }
+            }
+            collider.grid().mesh();
+            entities.add(entity);
+        }
+        return entities;
+    }
+
+    private static Room room(FileHandle file, int x, int y) {
+        var map = new XmlReader().parse(file);
+        var tileSize = map.getIntAttribute("tilewidth");
+        for (var layer : map.getChildrenByNameRecursively("layer")) {
+            if (!layer.getAttribute("name").equals("collision")) continue;
+
+            var cols = layer.getIntAttribute("width");
+            var rows = layer.getIntAttribute("height");
+            var data = layer.getChildByName("data");
+            if (!"base64".equals(data.getAttribute("encoding", null)) || !"zlib".equals(data.getAttribute("compression", null))) {
+                throw new GdxRuntimeException("Only zlib compressed base64 collision layers are supported, in " + file.name());
+            }
+
+            var gids = inflate(Base64Coder.decode(data.getText().trim()), cols * rows * 4, file);
+            var cells = new int[cols * rows];
+            for (int row = 0; row < rows; row++) {
+                for (int col = 0; col < cols; col++) {
+                    var i = (col + row * cols) * 4;
+                    var gid = (gids[i] & 0xff) | (gids[i + 1] & 0xff) << 8 | (gids[i + 2] & 0xff) << 16 | (gids[i + 3] & 0xff) << 24;
+                    // tiled rows run top down
+                    cells[col + (rows - 1 - row) * cols] = (gid != 0) ? 1 : 0;
+                }
+            }
+            return new Room(file.nameWithoutExtension(), x, y, tileSize, cols, rows, cells);
+        }
+        throw new GdxRuntimeException("Missing layer 'collision' in " + file.name());
+    }
+
+    private static byte[] inflate(byte[] compressed, int length, FileHandle file) {
+        var inflater = new Inflater();
+        inflater.setInput(compressed);
+        var out = new byte[length];
+        try {
+            var read = 0;
+            while (read < length) {
+                var inflated = inflater.inflate(out, read, length - read);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput())) break;
+                read += inflated;
+            }
+            if (read != length) {
+                throw new GdxRuntimeException("Collision layer is short in " + file.name());
+            }
+        } catch (DataFormatException e) {
+            throw new GdxRuntimeException("Couldn't inflate the collision layer in " + file.name(), e);
+        } finally {
+            inflater.end();
+        }
+        return out;
+    }
+
+}
@@ -81,15 +81,26 @@ public class Assets extends Content implements Disposable {
 
         pixel = new Texture("images/pixel.png");
 
-        // load raw sprites from an atlas (see gradle lwjgl3:pack_rawsprites)
-        atlas = new TextureAtlas("atlas/sprites.atlas");
-
-        // load tileset sprites from an atlas (see gradle lwjgl3:pack_tilesets)
-        tilesetAtlas = new TextureAtlas("atlas/tilesets.atlas");
+        TextureAtlas aseAtlas;
+        if (Config.use_shared_atlas) {
+            // load raw, tileset, and aseprite sprites from one set of pages (see gradle aseprite:pack_shared)
+            // so that most frames draw without switching textures
+            atlas = new TextureAtlas("shared/shared.atlas");
+            tilesetAtlas = atlas;
+            aseAtlas = atlas;
+        } else {
+            // load raw sprites from an atlas (see gradle lwjgl3:pack_rawsprites)
+            atlas = new TextureAtlas("atlas/sprites.atlas");
+
+            // load tileset sprites from an atlas (see gradle lwjgl3:pack_tilesets)
+            tilesetAtlas = new TextureAtlas("atlas/tilesets.atlas");
+
+            // load aseprite sprites from an atlas
+            aseAtlas = new TextureAtlas("atlas/aseprites.atlas");
+        }
 
-        // load aseprite sprites from an atlas and json definitions
-        TextureAtlas aseAtlas = new TextureAtlas("atlas/aseprites.atlas");
-        FileHandle spritesDir = Gdx.files.internal("sprites");
+        // load aseprite sprite json definitions, the shared atlas has its own copies that name its regions
+        FileHandle spritesDir = Gdx.files.internal(Config.use_shared_atlas ? "shared/sprites" : "sprites");
         for (FileHandle fileHandle : spritesDir.list(".json")) {
             sprites.add(Content.loadSprite(fileHandle.path(), aseAtlas));
         }
@@ -113,7 +124,9 @@ public class Assets extends Content implements Disposable {
         font.dispose();
         batch.dispose();
         shapes.dispose();
-        tilesetAtlas.dispose();
+        if (tilesetAtlas != atlas) {
+            tilesetAtlas.dispose();
+        }
         atlas.dispose();
     }
 
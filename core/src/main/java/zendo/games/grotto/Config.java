@@ -7,4 +7,6 @@ public class Config {
     public static final int framebuffer_width = 320;
     public static final int framebuffer_height = 180;
     public static final boolean debug_states = false;
+    public static final boolean parallel_update = false;
+    public static final boolean use_shared_atlas = false;
 }
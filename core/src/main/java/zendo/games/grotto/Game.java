@@ -14,9 +14,10 @@ import com.badlogic.gdx.utils.Align;
 import zendo.games.grotto.components.*;
 import zendo.games.grotto.ecs.Entity;
 import zendo.games.grotto.ecs.World;
+import zendo.games.grotto.factories.WorldFactory;
+import zendo.games.grotto.hud.Hud;
 import zendo.games.grotto.input.Input;
 import zendo.games.grotto.map.WorldMap;
-import zendo.games.grotto.sprites.Sprite;
 import zendo.games.grotto.utils.Point;
 import zendo.games.grotto.utils.Time;
 
@@ -49,7 +50,11 @@ public class Game extends ApplicationAdapter {
     private Vector3 worldMouse;
     private InputMultiplexer inputMux;
 
+    private Hud hud;
+    private Hud restartPrompt;
     private boolean showingRestartPrompt;
+    private final StringBuilder statsText = new StringBuilder();
+    private int renderCalls;
 
     @Override
     public void create() {
@@ -80,7 +85,7 @@ public class Game extends ApplicationAdapter {
         frameBufferRegion = new TextureRegion(frameBufferTexture);
         frameBufferRegion.flip(false, true);
 
-        world = new World();
+        world = WorldFactory.world(Config.parallel_update ? World.Mode.parallel : World.Mode.sequential);
         world.addEntity().add(new GameContainer(this), GameContainer.class);
 
         worldMap = new WorldMap(world, assets, world_path);
@@ -92,12 +97,40 @@ public class Game extends ApplicationAdapter {
         worldMap.spawnBarriers(world);
         worldMap.spawnJumpthrus(world);
         worldMap.spawnSolids(world);
+        worldMap.prewarm(world);
 
         var camera = world.addEntity().add(new CameraController(worldCamera, assets.tween), CameraController.class);
         camera.worldMap = worldMap;
         camera.follow(player, Point.zero(), true);
 
         worldMouse = new Vector3();
+
+        createHud();
+    }
+
+    private void createHud() {
+        // the window camera is fixed size, so everything here can be placed once
+        var width = windowCamera.viewportWidth;
+        var height = windowCamera.viewportHeight;
+
+        hud = new Hud();
+        var coin = Assets.findSprite("coin");
+        if (coin != null) {
+            var icon = coin.getAnimation("idle").frames.get(4).image;
+            hud.add(new Hud.Icon(icon, 10, 10, 20, 20));
+            hud.add(new Hud.Label(assets.font, 35, 30))
+                    .bind(() -> player.get(Player.class).numCoins());
+        }
+
+        restartPrompt = new Hud();
+        restartPrompt.add(new Hud.Panel(assets.pixel, new Color(0.1f, 0.1f, 0.1f, 0.5f), 0, 0, width, height));
+        var w = (1 / 2f) * width;
+        var h = (1 / 4f) * height;
+        var c = Color.NAVY;
+        restartPrompt.add(new Hud.Panel(assets.pixel, new Color(c.r, c.g, c.b, 0.5f), (width - w) / 2f, (height - h) / 2f, w, h));
+        restartPrompt.add(new Hud.Label(assets.font, 0, height / 2f))
+                .text("FUCK... YOU DIED\n\nCLICK OR PRESS ANY KEY\n\nTO RESTART")
+                .align(width, Align.center, true);
     }
 
     @Override
@@ -129,7 +162,7 @@ public class Game extends ApplicationAdapter {
         showingRestartPrompt = false;
 
         // clear and reload level
-        worldMap.clear();
+        worldMap.clear(world);
         worldMap.load(world, world_path);
 
         // respawn player
@@ -158,6 +191,7 @@ public class Game extends ApplicationAdapter {
         worldMap.spawnBarriers(world);
         worldMap.spawnJumpthrus(world);
         worldMap.spawnSolids(world);
+        worldMap.prewarm(world);
 
         Gdx.app.log("reload", "World map reloaded");
     }
@@ -183,6 +217,12 @@ public class Game extends ApplicationAdapter {
             if (Input.pressed(f2)) DebugFlags.draw_anim_bounds  = !DebugFlags.draw_anim_bounds;
             if (Input.pressed(f3)) DebugFlags.draw_world_origin = !DebugFlags.draw_world_origin;
             if (Input.pressed(f4)) DebugFlags.draw_temp_debug   = !DebugFlags.draw_temp_debug;
+            if (Input.pressed(f5)) DebugFlags.draw_stats        = !DebugFlags.draw_stats;
+
+            if (Input.pressed(f8)) {
+                Collisions.use_broadphase = !Collisions.use_broadphase;
+                Gdx.app.log("collisions", "broadphase " + (Collisions.use_broadphase ? "enabled" : "disabled"));
+            }
 
             if (Input.pressed(f6)) DebugFlags.frame_stepping_enabled = !DebugFlags.frame_stepping_enabled;
             if (DebugFlags.frame_stepping_enabled && !Input.pressed(f7)) {
@@ -217,6 +257,10 @@ public class Game extends ApplicationAdapter {
     public void render() {
         update();
 
+        // draw calls made by the last frame, counting each baked tile layer as one
+        renderCalls = batch.totalRenderCalls + Tilemap.cached_draws;
+        batch.totalRenderCalls = 0;
+
         renderWorldIntoFramebuffer();
         renderFramebufferIntoWindow();
         renderWindowOverlay();
@@ -234,6 +278,7 @@ public class Game extends ApplicationAdapter {
             batch.begin();
             {
                 // world ------------------------
+                Tilemap.resetCounts();
                 world.render(batch);
 
                 // in-world ui ------------------
@@ -282,14 +327,7 @@ public class Game extends ApplicationAdapter {
             batch.draw(frameBufferRegion, 0, 0, Config.window_width, Config.window_height);
 
             // hud overlay items --------------------------
-            Sprite coin = Assets.findSprite("coin");
-            if (coin != null) {
-                Sprite.Anim anim = coin.getAnimation("idle");
-                TextureRegion texture = anim.frames.get(4).image;
-                batch.draw(texture, 10, 10, 20, 20);
-                int numCoins = player.get(Player.class).numCoins();
-                assets.font.draw(batch, "" + numCoins, 35, 30);
-            }
+            hud.render(batch);
         }
         batch.end();
     }
@@ -300,23 +338,25 @@ public class Game extends ApplicationAdapter {
         batch.begin();
         {
             if (showingRestartPrompt) {
-                batch.setColor(0.1f, 0.1f, 0.1f, 0.5f);
-                batch.draw(assets.pixel, 0, 0, windowCamera.viewportWidth, windowCamera.viewportHeight);
-                batch.setColor(Color.WHITE);
-
-                var w = (1 / 2f) * windowCamera.viewportWidth;
-                var h = (1 / 4f) * windowCamera.viewportHeight;
-                var centerX = windowCamera.viewportWidth / 2f;
-                var centerY = windowCamera.viewportHeight / 2f;
-                var c = Color.NAVY;
-                batch.setColor(c.r, c.g, c.b, 0.5f);
-                batch.draw(assets.pixel, centerX - w / 2f, centerY - h / 2f, w, h);
-                batch.setColor(Color.WHITE);
-
-                var font = assets.font;
-                var layout = assets.layout;
-                layout.setText(font, "FUCK... YOU DIED\n\nCLICK OR PRESS ANY KEY\n\nTO RESTART", Color.WHITE, windowCamera.viewportWidth, Align.center, false);
-                font.draw(batch, layout, 0, windowCamera.viewportHeight / 2f + assets.layout.height / 2f);
+                restartPrompt.render(batch);
+            }
+
+            if (DebugFlags.draw_stats) {
+                var stats = world.stats();
+                statsText.setLength(0);
+                statsText.append("draw calls ").append(renderCalls)
+                        .append("\nentities ").append(stats.entities)
+                        .append("  components ").append(stats.components)
+                        .append("\nupdate skipped ").append(stats.updateSkipped)
+                        .append("\nrender skipped ").append(stats.batchSkipped)
+                        .append("  drawn ").append(stats.batchRenders)
+                        .append("  culled ").append(stats.culled)
+                        .append("\ntiles drawn ").append(Tilemap.cells_submitted)
+                        .append(" of ").append(Tilemap.cells_total)
+                        .append("  baked layers ").append(Tilemap.cached_draws)
+                        .append("\nshapes skipped ").append(stats.shapeSkipped)
+                        .append("  drawn ").append(stats.shapeRenders);
+                assets.font.draw(batch, statsText, 10, windowCamera.viewportHeight - 10);
             }
         }
         batch.end();
@@ -352,6 +392,7 @@ public class Game extends ApplicationAdapter {
         public static boolean draw_anim_bounds = false;
         public static boolean frame_stepping_enabled = false;
         public static boolean draw_temp_debug = false;
+        public static boolean draw_stats = false;
     }
 
 }
\ No newline at end of file
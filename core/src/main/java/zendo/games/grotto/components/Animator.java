@@ -1,8 +1,10 @@
 package zendo.games.grotto.components;
 
 import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.GdxRuntimeException;
 import zendo.games.grotto.Game;
@@ -27,12 +29,14 @@ public class Animator extends Component {
     private int frameIndex;
     private float frameCounter;
 
-    public Animator() {}
-
-    public Animator(String spriteName) {
+    public Animator() {
         scale = new Vector2(1f, 1f);
         tint = new Color(1f, 1f, 1f, 1f);
-        sprite = Content.findSprite(spriteName);
+    }
+
+    public Animator(String spriteName) {
+        this();
+        sprite(spriteName);
     }
 
     public Animator(String spriteName, String animationName) {
@@ -46,8 +50,9 @@ public class Animator extends Component {
         mode = LoopMode.loop;
         rotation = 0;
         speed = 1;
-        scale = null;
-        tint = null;
+        // keep the owned objects around so that pooled instances can be reused without allocating
+        if (scale != null) scale.set(1f, 1f);
+        if (tint != null) tint.set(1f, 1f, 1f, 1f);
         sprite = null;
         animationIndex = 0;
         frameIndex = 0;
@@ -58,6 +63,14 @@ public class Animator extends Component {
         return sprite;
     }
 
+    public Animator sprite(String spriteName) {
+        sprite = Content.findSprite(spriteName);
+        animationIndex = 0;
+        frameIndex = 0;
+        frameCounter = 0;
+        return this;
+    }
+
     public float duration() {
         return (animation() != null) ? animation().duration() : 0f;
     }
@@ -144,6 +157,42 @@ public class Animator extends Component {
         }
     }
 
+    @Override
+    public boolean bounds(Rectangle out) {
+        if (!inValidState()) return false;
+
+        var anim = sprite.animations.get(animationIndex);
+        var frame = anim.frames.get(frameIndex);
+        var w = frame.image.getRegionWidth();
+        var h = frame.image.getRegionHeight();
+        var x = entity.position.x;
+        var y = entity.position.y;
+        var originX = sprite.origin.x;
+        var originY = sprite.origin.y;
+
+        if (rotation != 0) {
+            // whatever the angle, the frame stays within the farthest corner's distance from the origin
+            var dx = Math.max(originX, w - originX) * Math.abs(scale.x);
+            var dy = Math.max(originY, h - originY) * Math.abs(scale.y);
+            var radius = (float) Math.sqrt(dx * dx + dy * dy);
+            out.set(x - radius, y - radius, 2 * radius, 2 * radius);
+        } else {
+            // scaled around the origin, a negative scale flips it to the other side
+            var left   = x - originX * scale.x;
+            var right  = x + (w - originX) * scale.x;
+            var bottom = y - originY * scale.y;
+            var top    = y + (h - originY) * scale.y;
+            out.set(Math.min(left, right), Math.min(bottom, top), Math.abs(right - left), Math.abs(top - bottom));
+        }
+        return true;
+    }
+
+    @Override
+    public Texture texture() {
+        if (!inValidState()) return null;
+        return sprite.animations.get(animationIndex).frames.get(frameIndex).image.getTexture();
+    }
+
     @Override
     public void render(SpriteBatch batch) {
         if (!inValidState()) return;
@@ -9,7 +9,9 @@ import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import zendo.games.grotto.ecs.Component;
+import zendo.games.grotto.ecs.ComponentHandle;
 import zendo.games.grotto.ecs.Entity;
+import zendo.games.grotto.ecs.EntityHandle;
 import zendo.games.grotto.map.WorldMap;
 import zendo.games.grotto.utils.Calc;
 import zendo.games.grotto.utils.Point;
@@ -21,7 +23,7 @@ public class CameraController extends Component {
 
     public OrthographicCamera camera;
     public Point point;
-    public Entity entity;
+    public EntityHandle entity;
     public WorldMap worldMap;
 
     private TweenManager tween;
@@ -30,7 +32,7 @@ public class CameraController extends Component {
     private Vector2 dist;
 
     private Entity lastRoom;
-    private TweenComponent transition;
+    private ComponentHandle<TweenComponent> transition;
 
     public CameraController() {}
 
@@ -40,20 +42,22 @@ public class CameraController extends Component {
         this.target = new Vector3();
         this.dist = new Vector2();
         this.tween = tween;
+        this.entity = EntityHandle.none;
+        this.transition = ComponentHandle.none();
     }
 
     @Override
     public void reset() {
         super.reset();
         this.camera = null;
-        this.entity = null;
+        this.entity = EntityHandle.none;
         this.point = null;
         this.tween = null;
         this.mode = null;
         this.target = null;
         this.worldMap = null;
         this.lastRoom = null;
-        this.transition = null;
+        this.transition = ComponentHandle.none();
     }
 
     public void follow(Entity entity, Point offset) {
@@ -62,7 +66,7 @@ public class CameraController extends Component {
 
     public void follow(Entity entity, Point offset, boolean immediate) {
         // TODO: wire up offset
-        this.entity = entity;
+        this.entity = EntityHandle.of(entity);
         this.mode = TargetMode.entity;
         if (immediate) {
             target.set(entity.position.x, entity.position.y, 0);
@@ -99,16 +103,18 @@ public class CameraController extends Component {
 
     @Override
     public void update(float dt) {
+        // the followed entity might have been destroyed since, in which case hold still until told otherwise
+        var followed = entity.get(world());
         Point targetPoint;
         switch (mode) {
             case point  -> targetPoint = point;
-            case entity -> targetPoint = entity.position;
+            case entity -> targetPoint = (followed != null) ? followed.position : Point.at((int) target.x, (int) target.y);
             default     -> targetPoint = Point.zero();
         }
 
         // update and constrain camera bounds if not currently transitioning,
         // otherwise transition tween will automatically update target until complete
-        if (transition == null) {
+        if (!transition.alive(world())) {
             // get camera edges
             var cameraHorzEdge = (int) (camera.viewportWidth / 2f);
             var cameraVertEdge = (int) (camera.viewportHeight / 2f);
@@ -159,6 +165,7 @@ public class CameraController extends Component {
                         // pause the player for the duration of the transition
                         var player = world().first(Player.class);
                         player.entity().active = false;
+                        var playerHandle = EntityHandle.of(player.entity());
 
                         // set the transition's starting point
                         target.set(lastTargetX, lastTargetY, 0);
@@ -166,20 +173,27 @@ public class CameraController extends Component {
                         // create a transition tween to move from last to next target
                         // TODO: could probably add a self-destruct into the TweenComponent, or a generic onComplete callback where we can self.destroy()
                         float duration = 1.66f;
-                        transition = entity.add(new TweenComponent(
+                        var host = (followed != null) ? followed : entity();
+                        transition = ComponentHandle.of(host.add(new TweenComponent(
                                 Tween.to(target, Vector3Accessor.XY, duration)
                                         .target(nextTargetX, nextTargetY)
                                         .setCallback((type, source) -> {
-                                            // restart the player
-                                            player.entity().active = true;
+                                            // restart the player, unless it's been replaced in the meantime
+                                            var restarted = playerHandle.get(world());
+                                            if (restarted != null) {
+                                                restarted.active = true;
+                                            }
                                             // update room reference
                                             lastRoom = room;
                                             // kill the transition component
-                                            transition.destroy();
-                                            transition = null;
+                                            var finished = transition.get(world());
+                                            if (finished != null) {
+                                                finished.destroy();
+                                            }
+                                            transition = ComponentHandle.none();
                                         })
                                         .start(tween)
-                        ), TweenComponent.class);
+                        ), TweenComponent.class));
                     }
                 } else {
                     // keep the camera inside the room's bounds
@@ -209,8 +223,10 @@ public class CameraController extends Component {
 //            Gdx.app.log("dist", "(" + (int) Calc.abs(dist.x) + ", " + (int) Calc.abs(dist.y) + ")");
 
             // entity position
-            var x = entity.position.x;
-            var y = entity.position.y;
+            var followed = entity.get(world());
+            var position = (followed != null) ? followed.position : Point.zero();
+            var x = position.x;
+            var y = position.y;
             var scale = 0.25f;
             shapes.set(ShapeRenderer.ShapeType.Line);
             shapes.setColor(1f, 0f, 0f, 1f);
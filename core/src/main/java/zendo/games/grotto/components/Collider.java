@@ -2,7 +2,9 @@ package zendo.games.grotto.components;
 
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
 import zendo.games.grotto.ecs.Component;
 import zendo.games.grotto.utils.Calc;
 import zendo.games.grotto.utils.Point;
@@ -21,30 +23,300 @@ public class Collider extends Component {
         public static final int item          = 1 << 5;
         public static final int room_bounds   = 1 << 6;
         public static final int climbable     = 1 << 7;
+        public static final int moving_solid  = 1 << 8;
     }
 
     public enum Shape { none, rect, grid }
 
+    public interface OnContact {
+        void contact(Collider collider, Collider other);
+    }
+
+    /**
+     * Cells are stored as a bitset per row, each row is 'words' longs long
+     * with column x of row y at bit (x % 64) of cells[y * words + x / 64]
+     *
+     * Filled cells can also be merged into a list of boxes (see mesh()),
+     * stored as (x, y, w, h) in cells and ordered by their bottom row
+     */
     public static class Grid {
         public int tileSize;
         public int cols;
         public int rows;
-        public boolean[] cells;
+        public int words;
+        public long[] cells;
+
+        // boxes from mesh(), the scratch used to build them, and whether they still match the cells
+        private final IntArray boxes = new IntArray();
+        private long[] claimed;
+        private boolean meshed;
+
+        public boolean get(int x, int y) {
+            return (cells[y * words + (x >>> 6)] & (1L << x)) != 0;
+        }
+
+        public void set(int x, int y, boolean value) {
+            var i = y * words + (x >>> 6);
+            var word = value ? (cells[i] | (1L << x)) : (cells[i] & ~(1L << x));
+            if (word != cells[i]) {
+                cells[i] = word;
+                meshed = false;
+            }
+        }
+
+        /**
+         * Check whether any cell in columns [start, end) of the specified row is set
+         */
+        public boolean any(int row, int start, int end) {
+            if (start >= end) return false;
+            var base = row * words;
+            var first = start >>> 6;
+            var last = (end - 1) >>> 6;
+            var firstMask = -1L << start;
+            var lastMask = -1L >>> (63 - ((end - 1) & 63));
+            if (first == last) {
+                return (cells[base + first] & firstMask & lastMask) != 0;
+            }
+            if ((cells[base + first] & firstMask) != 0) return true;
+            for (int i = first + 1; i < last; i++) {
+                if (cells[base + i] != 0) return true;
+            }
+            return (cells[base + last] & lastMask) != 0;
+        }
+
+        /**
+         * Set or clear every cell in columns [start, end) of the specified row
+         */
+        public void fill(int row, int start, int end, boolean value) {
+            if (start >= end) return;
+            var base = row * words;
+            var first = start >>> 6;
+            var last = (end - 1) >>> 6;
+            for (int i = first; i <= last; i++) {
+                var mask = -1L;
+                if (i == first) mask &= -1L << start;
+                if (i == last)  mask &= -1L >>> (63 - ((end - 1) & 63));
+                var word = value ? (cells[base + i] | mask) : (cells[base + i] & ~mask);
+                if (word != cells[base + i]) {
+                    cells[base + i] = word;
+                    meshed = false;
+                }
+            }
+        }
+
+        /**
+         * Greedily merge filled cells into boxes: scanning rows from the bottom, each unclaimed
+         * filled cell starts a box that grows right as far as the row allows, then up for as long
+         * as every cell in that span of the next row is filled and unclaimed.
+         * The boxes are only rebuilt when a cell has changed since the last call,
+         * reusing the same storage, so this is cheap to call every frame.
+         */
+        public void mesh() {
+            if (meshed) return;
+            if (claimed == null || claimed.length != cells.length) {
+                claimed = new long[cells.length];
+            } else {
+                Arrays.fill(claimed, 0L);
+            }
+            boxes.clear();
+            for (int y = 0; y < rows; y++) {
+                int x = 0;
+                while (x < cols) {
+                    if (!get(x, y) || isClaimed(claimed, x, y)) {
+                        x++;
+                        continue;
+                    }
+
+                    // grow right
+                    int w = 1;
+                    while (x + w < cols && get(x + w, y) && !isClaimed(claimed, x + w, y)) {
+                        w++;
+                    }
+
+                    // grow up
+                    int h = 1;
+                    while (y + h < rows && isSpanFree(claimed, x, y + h, w)) {
+                        h++;
+                    }
+
+                    for (int iy = y; iy < y + h; iy++) {
+                        for (int ix = x; ix < x + w; ix++) {
+                            claimed[iy * words + (ix >>> 6)] |= (1L << ix);
+                        }
+                    }
+                    boxes.add(x, y, w, h);
+                    x += w;
+                }
+            }
+            meshed = true;
+        }
+
+        /**
+         * Walk the cells along a ray (in grid space, direction dx,dy) one cell boundary at a time,
+         * returning whether a filled cell is hit within maxDist and filling in the hit's cell and distance
+         */
+        public boolean raycast(int x, int y, int dx, int dy, float maxDist, Collisions.RaycastHit hit) {
+            if (dx == 0 && dy == 0) return false;
+            var length = (float) Math.sqrt((double) dx * dx + (double) dy * dy);
+            var ux = dx / length;
+            var uy = dy / length;
+
+            // clip the ray to the grid's area
+            var tEnter = 0f;
+            var tExit = maxDist;
+            var width = cols * tileSize;
+            var height = rows * tileSize;
+            if (ux == 0) {
+                if (x < 0 || x >= width) return false;
+            } else {
+                var t0 = (0     - x) / ux;
+                var t1 = (width - x) / ux;
+                tEnter = Math.max(tEnter, Math.min(t0, t1));
+                tExit  = Math.min(tExit,  Math.max(t0, t1));
+            }
+            if (uy == 0) {
+                if (y < 0 || y >= height) return false;
+            } else {
+                var t0 = (0      - y) / uy;
+                var t1 = (height - y) / uy;
+                tEnter = Math.max(tEnter, Math.min(t0, t1));
+                tExit  = Math.min(tExit,  Math.max(t0, t1));
+            }
+            // a ray that only touches the grid at a single point only counts if that point is inside it
+            var enterX = x + ux * tEnter;
+            var enterY = y + uy * tEnter;
+            if (tEnter > tExit) return false;
+            if (tEnter == tExit && (enterX < 0 || enterY < 0 || enterX >= width || enterY >= height)) return false;
+
+            // starting cell
+            var cx = Calc.clampInt((int) Math.floor(enterX / tileSize), 0, cols - 1);
+            var cy = Calc.clampInt((int) Math.floor(enterY / tileSize), 0, rows - 1);
+
+            // distance along the ray to the next cell boundary on each axis, and between boundaries
+            var stepX = (ux > 0) ? 1 : -1;
+            var stepY = (uy > 0) ? 1 : -1;
+            var tMaxX = (ux == 0) ? Float.MAX_VALUE : (((ux > 0) ? (cx + 1) * tileSize : cx * tileSize) - x) / ux;
+            var tMaxY = (uy == 0) ? Float.MAX_VALUE : (((uy > 0) ? (cy + 1) * tileSize : cy * tileSize) - y) / uy;
+            var tDeltaX = (ux == 0) ? Float.MAX_VALUE : tileSize / Math.abs(ux);
+            var tDeltaY = (uy == 0) ? Float.MAX_VALUE : tileSize / Math.abs(uy);
+
+            var t = tEnter;
+            while (true) {
+                if (get(cx, cy)) {
+                    hit.cellX = cx;
+                    hit.cellY = cy;
+                    hit.distance = t;
+                    return true;
+                }
+                // step through a corner diagonally, the cells beside it are only touched at a point
+                if (tMaxX < tMaxY) {
+                    t = tMaxX;
+                    tMaxX += tDeltaX;
+                    cx += stepX;
+                } else if (tMaxY < tMaxX) {
+                    t = tMaxY;
+                    tMaxY += tDeltaY;
+                    cy += stepY;
+                } else {
+                    t = tMaxX;
+                    tMaxX += tDeltaX;
+                    tMaxY += tDeltaY;
+                    cx += stepX;
+                    cy += stepY;
+                }
+                if (t > tExit || cx < 0 || cy < 0 || cx >= cols || cy >= rows) {
+                    return false;
+                }
+            }
+        }
+
+        public int boxCount() {
+            return meshed ? boxes.size / 4 : 0;
+        }
+
+        /**
+         * Fill in the box at the specified index, in cells, as of the last mesh()
+         */
+        public RectI box(int index, RectI out) {
+            if (index < 0 || index >= boxCount()) {
+                throw new GdxRuntimeException("Box " + index + " out of range, grid has " + boxCount() + " boxes");
+            }
+            var i = index * 4;
+            var items = boxes.items;
+            return out.set(items[i], items[i + 1], items[i + 2], items[i + 3]);
+        }
+
+        private boolean isClaimed(long[] claimed, int x, int y) {
+            return (claimed[y * words + (x >>> 6)] & (1L << x)) != 0;
+        }
+
+        private boolean isSpanFree(long[] claimed, int x, int y, int w) {
+            for (int ix = x; ix < x + w; ix++) {
+                if (!get(ix, y) || isClaimed(claimed, ix, y)) {
+                    return false;
+                }
+            }
+            return true;
+        }
     }
 
-    public int mask = 0;
     public Point origin;
+    public OnContact onContactBegin;
+    public OnContact onContactStay;
+    public OnContact onContactEnd;
 
+    private int mask = 0;
     private Shape shape;
     private RectI rect;
     private Grid grid;
 
+    // world space bounds, cached along with the inputs they were computed from
+    // so they only get recomputed when entity position, origin, or rect actually change
     private RectI worldRect;
+    private boolean worldRectValid;
+    private int cachedX, cachedY;
+    private int cachedOriginX, cachedOriginY;
+    private int cachedRectX, cachedRectY, cachedRectW, cachedRectH;
+
+    // immutable colliders are never expected to move, so they skip the change
+    // checks on their cached bounds and the per-frame broadphase re-index
+    private boolean immutable;
+
+    // colliders carrying any bit of the contact mask that overlap this one, as of the last contact pass
+    // or refresh (see firstContact()), and the ones as of the last pass that began and ended are worked out from
+    private int contactMask;
+    Array<Collider> contacts;
+    private Array<Collider> passContacts;
+    private Array<Collider> previousContacts;
+    private Array<Collider> contactsBegan;
+    private Array<Collider> contactsEnded;
+    // contact colliders that have this one in any of their lists, so it can be dropped from them when it's removed
+    Array<Collider> contactHolders;
+
+    // broadphase bookkeeping, managed by Collisions
+    boolean indexed;
+    int indexedMask;
+    int bucketLeft;
+    int bucketBottom;
+    int bucketRight;
+    int bucketTop;
+    int slot = -1;
+    int contactIndex = -1;
+    // the Collisions move count when this collider last moved, and when its contacts were last found
+    long movedAt;
+    long contactsAt;
 
     public Collider() {
         super();
         origin = Point.zero();
+        rect = RectI.zero();
         worldRect = RectI.zero();
+        contacts = new Array<>(false, 4);
+        passContacts = new Array<>(false, 4);
+        previousContacts = new Array<>(false, 4);
+        contactsBegan = new Array<>(false, 4);
+        contactsEnded = new Array<>(false, 4);
+        contactHolders = new Array<>(false, 4);
     }
 
     @Override
@@ -52,10 +324,45 @@ public class Collider extends Component {
         super.reset();
         mask = 0;
         shape = Shape.none;
-        origin = null;
-        rect = null;
+        onContactBegin = null;
+        onContactStay = null;
+        onContactEnd = null;
         grid = null;
-        worldRect = null;
+        worldRectValid = false;
+        immutable = false;
+        contactMask = 0;
+        // keep the owned objects around so that pooled instances can be reused without allocating
+        if (origin != null) {
+            origin.set(0, 0);
+            rect.set(0, 0, 0, 0);
+            worldRect.set(0, 0, 0, 0);
+            contacts.clear();
+            passContacts.clear();
+            previousContacts.clear();
+            contactsBegan.clear();
+            contactsEnded.clear();
+            contactHolders.clear();
+        }
+        indexed = false;
+        indexedMask = 0;
+        bucketLeft = 0;
+        bucketBottom = 0;
+        bucketRight = 0;
+        bucketTop = 0;
+        slot = -1;
+        contactIndex = -1;
+        movedAt = 0;
+        contactsAt = 0;
+    }
+
+    @Override
+    public void added() {
+        world().collisions().add(this);
+    }
+
+    @Override
+    public void destroyed() {
+        world().collisions().remove(this);
     }
 
     // ------------------------------------------------------------------------
@@ -63,7 +370,7 @@ public class Collider extends Component {
     public static Collider makeRect(RectI rect) {
         var collider = new Collider();
         collider.shape = Shape.rect;
-        collider.rect = RectI.at(rect);
+        collider.rect.set(rect);
         return collider;
     }
 
@@ -74,8 +381,8 @@ public class Collider extends Component {
         collider.grid.tileSize = tileSize;
         collider.grid.cols = cols;
         collider.grid.rows = rows;
-        collider.grid.cells = new boolean[cols * rows];
-        Arrays.fill(collider.grid.cells, false);
+        collider.grid.words = (cols + 63) / 64;
+        collider.grid.cells = new long[collider.grid.words * rows];
         return collider;
     }
 
@@ -85,6 +392,18 @@ public class Collider extends Component {
         return shape;
     }
 
+    public int mask() {
+        return mask;
+    }
+
+    public Collider mask(int mask) {
+        this.mask = mask;
+        if (world() != null) {
+            world().collisions().remask(this);
+        }
+        return this;
+    }
+
     // ------------------------------------------------------------------------
 
     public RectI rect() {
@@ -94,26 +413,82 @@ public class Collider extends Component {
         return rect;
     }
 
+    /**
+     * World space bounds of this collider, for grids this is the area covered by the grid.
+     * The returned rect is owned by the collider and shouldn't be modified.
+     */
     public RectI worldRect() {
-        return worldRect.set(
-                entity.position.x + origin.x + rect.x,
-                entity.position.y + origin.y + rect.y,
-                rect.w, rect.h);
+        if (immutable && worldRectValid) {
+            return worldRect;
+        }
+
+        var position = entity.position;
+        var rectChanged = (shape == Shape.rect) && (
+                   rect.x != cachedRectX || rect.y != cachedRectY
+                || rect.w != cachedRectW || rect.h != cachedRectH);
+        if (worldRectValid && !rectChanged
+         && position.x == cachedX && position.y == cachedY
+         && origin.x == cachedOriginX && origin.y == cachedOriginY) {
+            return worldRect;
+        }
+
+        cachedX = position.x;
+        cachedY = position.y;
+        cachedOriginX = origin.x;
+        cachedOriginY = origin.y;
+        switch (shape) {
+            case rect -> {
+                cachedRectX = rect.x;
+                cachedRectY = rect.y;
+                cachedRectW = rect.w;
+                cachedRectH = rect.h;
+                worldRect.set(position.x + origin.x + rect.x, position.y + origin.y + rect.y, rect.w, rect.h);
+            }
+            case grid -> worldRect.set(position.x + origin.x, position.y + origin.y,
+                    grid.cols * grid.tileSize, grid.rows * grid.tileSize);
+            default -> worldRect.set(position.x, position.y, 0, 0);
+        }
+        worldRectValid = true;
+        return worldRect;
     }
 
+    public boolean immutable() {
+        return immutable;
+    }
+
+    /**
+     * Mark this collider as never moving, should be set once the collider's entity is positioned
+     */
+    public Collider immutable(boolean immutable) {
+        this.immutable = immutable;
+        reindex();
+        return this;
+    }
+
+    /**
+     * Set the rect, a collider without a shape yet (ie. one from World.add(entity, Collider.class)) becomes a rect collider
+     */
     public Collider rect(RectI rect) {
+        if (shape == Shape.none) {
+            shape = Shape.rect;
+        }
         if (shape != Shape.rect) {
             throw new GdxRuntimeException("Collider is not a Rectangle");
         }
         this.rect.set(rect);
+        reindex();
         return this;
     }
 
     public Collider rect(int x, int y, int w, int h) {
+        if (shape == Shape.none) {
+            shape = Shape.rect;
+        }
         if (shape != Shape.rect) {
             throw new GdxRuntimeException("Collider is not a Rectangle");
         }
         rect.set(x, y, w, h);
+        reindex();
         return this;
     }
 
@@ -133,7 +508,7 @@ public class Collider extends Component {
         if (x < 0 || y < 0 || x >= grid.cols || y >= grid.rows) {
             throw new GdxRuntimeException("Cell is out of bounds");
         }
-        return grid.cells[x + y * grid.cols];
+        return grid.get(x, y);
     }
 
     public void setCell(int x, int y, boolean value) {
@@ -143,7 +518,7 @@ public class Collider extends Component {
         if (x < 0 || y < 0 || x >= grid.cols || y >= grid.rows) {
             throw new GdxRuntimeException("Cell is out of bounds");
         }
-        grid.cells[x + y * grid.cols] = value;
+        grid.set(x, y, value);
     }
 
     public void setCells(int x, int y, int w, int h, boolean value) {
@@ -153,31 +528,199 @@ public class Collider extends Component {
         if (x < 0 || y < 0 || x + w > grid.cols || y + h > grid.rows) {
             throw new GdxRuntimeException("Cell is out of bounds");
         }
-        for (int ix = x; ix < x + w; ix++) {
-            for (int iy = y; iy < y + h; iy++) {
-                grid.cells[ix + iy * grid.cols] = value;
+        for (int iy = y; iy < y + h; iy++) {
+            grid.fill(iy, x, x + w, value);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    public int contactMask() {
+        return contactMask;
+    }
+
+    /**
+     * Have the World's contact pass track overlaps with colliders carrying any bit of the mask
+     */
+    public Collider contactMask(int contactMask) {
+        this.contactMask = contactMask;
+        if (world() != null) {
+            world().collisions().recontact(this);
+        }
+        return this;
+    }
+
+    /**
+     * Colliders overlapping this one as of the last contact pass, or the last firstContact() if anything
+     * had moved since, see contactMask(int)
+     */
+    public Array<Collider> contacts() {
+        return contacts;
+    }
+
+    /**
+     * Contacts that started in the last contact pass
+     */
+    public Array<Collider> contactsBegan() {
+        return contactsBegan;
+    }
+
+    /**
+     * Contacts that stopped in the last contact pass
+     */
+    public Array<Collider> contactsEnded() {
+        return contactsEnded;
+    }
+
+    /**
+     * Find the first contact that matches the mask, like first(mask) but using the results of the contact pass.
+     * The mask has to be part of the contact mask already. If this collider, or any collider carrying a bit of
+     * its contact mask, has moved since its contacts were found they're found again first, so they're as current
+     * as a direct query would be (contactsBegan() and contactsEnded() are still only updated by the pass).
+     */
+    public Collider firstContact(int mask) {
+        if (!active) return null;
+        if ((contactMask & mask) != mask) {
+            throw new GdxRuntimeException("Collider isn't tracking contacts for mask " + mask + ", add it to the contactMask()");
+        }
+        if (world() != null) {
+            world().collisions().refreshContacts(this);
+        }
+        for (int i = 0; i < contacts.size; i++) {
+            var other = contacts.get(i);
+            if ((other.mask() & mask) == mask) {
+                return other;
             }
         }
+        return null;
+    }
+
+    public boolean checkContact(int mask) {
+        return firstContact(mask) != null;
+    }
+
+    // contact pass bookkeeping, managed by Collisions
+
+    void swapContacts() {
+        // only the last pass's contacts are carried over, as the previous ones
+        for (int i = 0; i < contacts.size; i++) {
+            var other = contacts.get(i);
+            if (!passContacts.contains(other, true)) {
+                other.contactHolders.removeValue(this, true);
+            }
+        }
+        for (int i = 0; i < contactsEnded.size; i++) {
+            contactsEnded.get(i).contactHolders.removeValue(this, true);
+        }
+        var swap = previousContacts;
+        previousContacts = passContacts;
+        passContacts = swap;
+        passContacts.clear();
+        contacts.clear();
+    }
+
+    void refillContacts() {
+        // contacts that only a refresh found are dropped, the pass's are still held by its lists
+        for (int i = 0; i < contacts.size; i++) {
+            var other = contacts.get(i);
+            if (!passContacts.contains(other, true) && !previousContacts.contains(other, true)) {
+                other.contactHolders.removeValue(this, true);
+            }
+        }
+        contacts.clear();
+    }
+
+    void addContact(Collider other) {
+        contacts.add(other);
+        if (!other.contactHolders.contains(this, true)) {
+            other.contactHolders.add(this);
+        }
+    }
+
+    void diffContacts() {
+        passContacts.addAll(contacts);
+        contactsBegan.clear();
+        contactsEnded.clear();
+        for (int i = 0; i < contacts.size; i++) {
+            var other = contacts.get(i);
+            if (!previousContacts.contains(other, true)) {
+                contactsBegan.add(other);
+            }
+        }
+        for (int i = 0; i < previousContacts.size; i++) {
+            var other = previousContacts.get(i);
+            if (!contacts.contains(other, true)) {
+                contactsEnded.add(other);
+            }
+        }
+    }
+
+    void fireContacts() {
+        if (onContactBegin != null) {
+            for (int i = 0; i < contactsBegan.size; i++) {
+                onContactBegin.contact(this, contactsBegan.get(i));
+            }
+        }
+        if (onContactStay != null) {
+            for (int i = 0; i < contacts.size; i++) {
+                var other = contacts.get(i);
+                if (!contactsBegan.contains(other, true)) {
+                    onContactStay.contact(this, other);
+                }
+            }
+        }
+        if (onContactEnd != null) {
+            for (int i = 0; i < contactsEnded.size; i++) {
+                onContactEnd.contact(this, contactsEnded.get(i));
+            }
+        }
+    }
+
+    void removeContact(Collider other) {
+        contacts.removeValue(other, true);
+        passContacts.removeValue(other, true);
+        previousContacts.removeValue(other, true);
+        contactsBegan.removeValue(other, true);
+        contactsEnded.removeValue(other, true);
+    }
+
+    void dropHeldContacts() {
+        for (int i = 0; i < contactHolders.size; i++) {
+            contactHolders.get(i).removeContact(this);
+        }
+        contactHolders.clear();
+    }
+
+    void clearContacts() {
+        for (int i = 0; i < contacts.size; i++) {
+            contacts.get(i).contactHolders.removeValue(this, true);
+        }
+        for (int i = 0; i < passContacts.size; i++) {
+            passContacts.get(i).contactHolders.removeValue(this, true);
+        }
+        for (int i = 0; i < previousContacts.size; i++) {
+            previousContacts.get(i).contactHolders.removeValue(this, true);
+        }
+        contacts.clear();
+        passContacts.clear();
+        previousContacts.clear();
+        contactsBegan.clear();
+        contactsEnded.clear();
     }
 
     // ------------------------------------------------------------------------
 
     public Collider first(int mask) {
-        return first(mask, Point.zero());
+        return first(mask, 0, 0);
     }
 
     public Collider first(int mask, Point offset) {
+        return first(mask, offset.x, offset.y);
+    }
+
+    public Collider first(int mask, int dx, int dy) {
         if (world() != null) {
-            var other = world().first(Collider.class);
-            while (other != null) {
-                var isDifferent = (other != this);
-                var isMasked = ((other.mask & mask) == mask);
-                var isOverlap = overlaps(other, offset);
-                if (isDifferent && isMasked && isOverlap) {
-                    return other;
-                }
-                other = (Collider) other.next;
-            }
+            return world().collisions().first(this, mask, dx, dy);
         }
         return null;
     }
@@ -185,36 +728,81 @@ public class Collider extends Component {
     // ------------------------------------------------------------------------
 
     public boolean check(int mask) {
-        return check(mask, Point.zero());
+        return check(mask, 0, 0);
     }
 
     public boolean check(int mask, Point offset) {
+        return check(mask, offset.x, offset.y);
+    }
+
+    public boolean check(int mask, int dx, int dy) {
         if (!active) return false;
         if (world() != null) {
-            var other = world().first(Collider.class);
-            while (other != null) {
-                var isDifferent = (other != this);
-                var isMasked = ((other.mask & mask) == mask);
-                var isOverlap = overlaps(other, offset);
-                if (isDifferent && isMasked && isOverlap) {
-                    return true;
-                }
-                other = (Collider) other.next;
-            }
+            return world().collisions().first(this, mask, dx, dy) != null;
         }
         return false;
     }
 
+    // ------------------------------------------------------------------------
+
+    /**
+     * How far this collider can move horizontally (in whole pixels, towards the sign of amount)
+     * before it would overlap a collider that matches the mask
+     */
+    public int sweepX(int mask, int amount) {
+        if (world() != null) {
+            return world().collisions().sweep(this, mask, amount, 0);
+        }
+        return Calc.abs(amount);
+    }
+
+    /**
+     * How far this collider can move vertically (in whole pixels, towards the sign of amount)
+     * before it would overlap a collider that matches the mask
+     */
+    public int sweepY(int mask, int amount) {
+        if (world() != null) {
+            return world().collisions().sweep(this, mask, 0, amount);
+        }
+        return Calc.abs(amount);
+    }
+
+    /**
+     * How far this collider can move down before landing on top of a collider that matches the mask,
+     * ignoring any colliders it is already inside of at the step before (ie. jumpthru rules)
+     */
+    public int sweepOnto(int mask, int amount) {
+        if (world() != null) {
+            return world().collisions().sweepOnto(this, mask, amount);
+        }
+        return Calc.abs(amount);
+    }
+
+    /**
+     * Update this collider's broadphase buckets, call after changing its position or size
+     */
+    public void reindex() {
+        // an explicit re-index is the only way an immutable collider picks up a change
+        worldRectValid = false;
+        if (world() != null) {
+            world().collisions().update(this);
+        }
+    }
+
     public boolean overlaps(Collider other, Point offset) {
+        return overlaps(other, offset.x, offset.y);
+    }
+
+    public boolean overlaps(Collider other, int dx, int dy) {
         if (shape == Shape.rect) {
             if (other.shape == Shape.rect) {
-                return rectOverlapsRect(this, other, offset);
+                return rectOverlapsRect(this, other, dx, dy);
             } else if (other.shape == Shape.grid) {
-                return rectOverlapsGrid(this, other, offset);
+                return rectOverlapsGrid(this, other, dx, dy);
             }
         } else if (shape == Shape.grid) {
             if (other.shape == Shape.rect) {
-                return rectOverlapsGrid(other, this, offset);
+                return rectOverlapsGrid(other, this, dx, dy);
             } else if (other.shape == Shape.grid) {
                 throw new GdxRuntimeException("Grid->Grid overlap checks not supported");
             }
@@ -239,86 +827,56 @@ public class Collider extends Component {
             var y = entity.position.y + origin.y + rect.y;
             shapes.rect(x, y, rect.w, rect.h);
         } else if (shape == Shape.grid) {
-            var rect = RectI.pool.obtain();
-            for (int x = 0; x < grid.cols; x++) {
-                for (int y = 0; y < grid.rows; y++) {
-                    if (!grid.cells[x + y * grid.cols]) continue;
-                    rect.set(
-                            entity.position.x + origin.x + x * grid.tileSize,
-                            entity.position.y + origin.y + y * grid.tileSize,
-                            grid.tileSize, grid.tileSize
-                    );
-                    shapes.rect(rect.x, rect.y, rect.w, rect.h);
-                }
+            grid.mesh();
+            var box = RectI.pool.obtain();
+            for (int i = 0; i < grid.boxCount(); i++) {
+                grid.box(i, box);
+                shapes.rect(
+                        entity.position.x + origin.x + box.x * grid.tileSize,
+                        entity.position.y + origin.y + box.y * grid.tileSize,
+                        box.w * grid.tileSize,
+                        box.h * grid.tileSize
+                );
             }
-            RectI.pool.free(rect);
+            RectI.pool.free(box);
         }
         shapes.setColor(Color.WHITE);
     }
 
     // ------------------------------------------------------------------------
 
-    private static boolean rectOverlapsRect(Collider a, Collider b, Point offset) {
-        var rectA = RectI.pool.obtain().set(
-                a.entity.position.x + a.origin.x + a.rect.x + offset.x,
-                a.entity.position.y + a.origin.y + a.rect.y + offset.y,
-                a.rect.w, a.rect.h
-        );
-        var rectB = RectI.pool.obtain().set(
-                b.entity.position.x + b.origin.x + b.rect.x,
-                b.entity.position.y + b.origin.y + b.rect.y,
-                b.rect.w, b.rect.h
-        );
-        var overlap = rectA.overlaps(rectB);
-        RectI.pool.free(rectA);
-        RectI.pool.free(rectB);
-        return overlap;
-    }
-
-    private static boolean rectOverlapsGrid(Collider a, Collider b, Point offset) {
+    private static boolean rectOverlapsRect(Collider a, Collider b, int dx, int dy) {
+        var rectA = a.worldRect();
+        var rectB = b.worldRect();
+        var ax = rectA.x + dx;
+        var ay = rectA.y + dy;
+        return ax < rectB.x + rectB.w && rectB.x < ax + rectA.w
+            && ay < rectB.y + rectB.h && rectB.y < ay + rectA.h;
+    }
+
+    private static boolean rectOverlapsGrid(Collider a, Collider b, int dx, int dy) {
         // get a relative rectangle to the grid
-        RectI rect = RectI.pool.obtain().set(
-                a.origin.x + a.rect.x + a.entity().position.x + offset.x - b.entity().position.x,
-                a.origin.y + a.rect.y + a.entity().position.y + offset.y - b.entity().position.y,
-                a.rect.w,
-                a.rect.h
-        );
-
-        // first do a sanity check that the Rect is within the bounds of the Grid
-        RectI gridBounds = RectI.pool.obtain().set(
-                b.origin.x,
-                b.origin.y,
-                b.grid.cols * b.grid.tileSize,
-                b.grid.rows * b.grid.tileSize
-        );
-
-        if (!rect.overlaps(gridBounds)) {
-            RectI.pool.free(rect);
-            RectI.pool.free(gridBounds);
-            return false;
-        }
-
-        // get the cells the rectangle overlaps
-        // subtract out the rect collider's origin to put it back in the same space as the grid (0..col*tileSz,0..row*tileSz)
-        int left   = Calc.clampInt((int) Calc.floor  (rect.x        / (float) b.grid.tileSize), 0, b.grid.cols);
-        int right  = Calc.clampInt((int) Calc.ceiling(rect.right()  / (float) b.grid.tileSize), 0, b.grid.cols);
-        int top    = Calc.clampInt((int) Calc.floor  (rect.y        / (float) b.grid.tileSize), 0, b.grid.rows);
-        int bottom = Calc.clampInt((int) Calc.ceiling(rect.bottom() / (float) b.grid.tileSize), 0, b.grid.rows);
-
-        // check each cell
-        for (int x = left; x < right; x++) {
-            for (int y = top; y < bottom; y++) {
-                if (b.grid.cells[x + y * b.grid.cols]) {
-                    RectI.pool.free(rect);
-                    RectI.pool.free(gridBounds);
-                    return true;
-                }
+        var rect = a.worldRect();
+        var gridRect = b.worldRect();
+        var x = rect.x + dx - gridRect.x;
+        var y = rect.y + dy - gridRect.y;
+
+        // get the cells the rectangle overlaps, the rect is already in the same space as the grid (0..col*tileSz,0..row*tileSz)
+        // clamping to the grid dimensions leaves an empty span if the rect is outside the grid entirely
+        // note: rows run bottom to top, so the last row covered is found from the rect's top edge
+        int left   = Calc.clampInt(Calc.floorDiv(x,            b.grid.tileSize), 0, b.grid.cols);
+        int right  = Calc.clampInt(Calc.ceilDiv (x + rect.w,   b.grid.tileSize), 0, b.grid.cols);
+        int bottom = Calc.clampInt(Calc.floorDiv(y,            b.grid.tileSize), 0, b.grid.rows);
+        int top    = Calc.clampInt(Calc.ceilDiv (y + rect.h,   b.grid.tileSize), 0, b.grid.rows);
+
+        // check the span of each row
+        for (int row = bottom; row < top; row++) {
+            if (b.grid.any(row, left, right)) {
+                return true;
             }
         }
 
         // all cells were empty
-        RectI.pool.free(rect);
-        RectI.pool.free(gridBounds);
         return false;
     }
 
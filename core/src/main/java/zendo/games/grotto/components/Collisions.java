@@ -0,0 +1,962 @@
+package zendo.games.grotto.components;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongMap;
+import zendo.games.grotto.utils.Calc;
+import zendo.games.grotto.utils.RectI;
+
+import java.util.Arrays;
+
+/**
+ * Broadphase for Collider queries, owned by the World.
+ *
+ * Colliders are kept in a separate layer for each bit in their mask (plus one layer
+ * that holds every collider), and each layer is bucketed into a uniform grid spatial hash
+ * based on collider world bounds. Collider.check() and Collider.first() only need to test
+ * colliders that carry a bit of the query mask and share a bucket with the query,
+ * rather than every collider in the world.
+ *
+ * Each indexed collider gets a slot, and the data that bucket scans touch for every collider
+ * (mask, query stamp, padded bounds) is stored in parallel arrays indexed by slot, so that
+ * buckets are just lists of ints and most colliders get rejected without touching them at all.
+ *
+ * Buckets and slot bounds are only as current as the last re-index. Movers and Solids re-index
+ * as they move, and every other collider is re-indexed once per World.update(), so anything else
+ * that moves a collider's entity (or changes its rect) has to call Collider.reindex() for queries
+ * made before the next update to find it. The querying collider itself is always refreshed first.
+ *
+ * Queries share scratch state (the stamp, sweep candidates, and the excluded collider), so they
+ * aren't reentrant or thread safe: they mustn't be nested, and they can't be made from updates that
+ * a parallel World runs off the main thread, which throws (see lock()).
+ */
+@SuppressWarnings("unchecked")
+public class Collisions {
+
+    /**
+     * Result of a raycast, meant to be reused between queries
+     */
+    public static class RaycastHit {
+        public Collider collider;
+        public float distance;
+        public int x;
+        public int y;
+        // the hit cell if the collider is a grid, otherwise -1
+        public int cellX;
+        public int cellY;
+
+        public RaycastHit reset() {
+            collider = null;
+            distance = 0;
+            x = y = 0;
+            cellX = cellY = -1;
+            return this;
+        }
+    }
+
+    // switch between the spatial hash and a brute force scan of each mask layer, for comparison
+    public static boolean use_broadphase = true;
+
+    // width and height of a bucket in world units
+    static final int bucket_size = 64;
+
+    // colliders are bucketed with a bit of slack so that small position changes
+    // that happen between re-indexing (tweens, nudges, etc...) don't get missed
+    static final int bucket_margin = 8;
+
+    // one layer per mask bit, and a final layer that holds every collider regardless of mask
+    static final int all_layer = Integer.SIZE;
+
+    private final Array<Collider>[] layers;
+    private final LongMap<IntArray>[] buckets;
+
+    // per slot collider data, see the class comment
+    private Collider[] slotColliders;
+    private int[] slotMasks;
+    private int[] slotStamps;
+    // world bounds as of the last re-index, padded by bucket_margin, as inclusive pixel ranges
+    private int[] slotLeft;
+    private int[] slotBottom;
+    private int[] slotRight;
+    private int[] slotTop;
+    // where the slot's collider sits in each layer it belongs to, so it can be swap-removed without a search
+    private final int[][] slotLayerIndex;
+    private int slotCount;
+    private final IntArray freeSlots;
+
+    private final Array<Collider> candidates;
+    private final Array<Collider> contactColliders;
+    private final Array<Collider> contactEvents;
+    private Collider excluded;
+    private int stamp;
+    private boolean locked;
+
+    // counts every move, add, and mask change of an indexed collider, along with the count as of the
+    // last one in each layer, so contacts can tell when they might be out of date (see refreshContacts())
+    private long moves;
+    private final long[] layerMovedAt;
+
+    public Collisions() {
+        layers = (Array<Collider>[]) new Array<?>[all_layer + 1];
+        buckets = (LongMap<IntArray>[]) new LongMap<?>[all_layer + 1];
+        slotLayerIndex = new int[all_layer + 1][];
+        for (int i = 0; i < layers.length; i++) {
+            layers[i] = new Array<>(false, 16);
+            buckets[i] = new LongMap<>();
+            slotLayerIndex[i] = new int[64];
+        }
+        slotColliders = new Collider[64];
+        slotMasks  = new int[64];
+        slotStamps = new int[64];
+        slotLeft   = new int[64];
+        slotBottom = new int[64];
+        slotRight  = new int[64];
+        slotTop    = new int[64];
+        slotCount = 0;
+        freeSlots = new IntArray();
+        candidates = new Array<>(false, 16);
+        contactColliders = new Array<>(false, 16);
+        contactEvents = new Array<>();
+        excluded = null;
+        stamp = 0;
+        locked = false;
+        moves = 0;
+        layerMovedAt = new long[all_layer + 1];
+    }
+
+    public int count() {
+        return layers[all_layer].size;
+    }
+
+    public void add(Collider collider) {
+        if (collider.indexed) return;
+        allocateSlot(collider);
+        addToLayers(collider);
+        moved(collider, collider.indexedMask);
+        if (collider.contactMask() != 0) {
+            trackContacts(collider);
+        }
+    }
+
+    public void remove(Collider collider) {
+        if (!collider.indexed) return;
+        removeFromLayers(collider);
+        freeSlot(collider);
+
+        // drop any contacts with the removed collider so nobody is left holding onto it
+        if (collider.contactIndex != -1) {
+            untrackContacts(collider);
+        }
+        collider.dropHeldContacts();
+        collider.clearContacts();
+    }
+
+    /**
+     * Move a collider between layers, should be called after its mask changes
+     */
+    public void remask(Collider collider) {
+        if (!collider.indexed || collider.indexedMask == collider.mask()) return;
+        var previousMask = collider.indexedMask;
+        removeFromLayers(collider);
+        addToLayers(collider);
+        moved(collider, previousMask | collider.indexedMask);
+    }
+
+    /**
+     * Start or stop generating contacts for a collider, should be called after its contact mask changes
+     */
+    public void recontact(Collider collider) {
+        if (!collider.indexed) return;
+        var isTracked = (collider.contactIndex != -1);
+        if (collider.contactMask() != 0 && !isTracked) {
+            trackContacts(collider);
+        } else if (collider.contactMask() == 0 && isTracked) {
+            untrackContacts(collider);
+            collider.clearContacts();
+        }
+    }
+
+    private void trackContacts(Collider collider) {
+        collider.contactIndex = contactColliders.size;
+        contactColliders.add(collider);
+    }
+
+    private void untrackContacts(Collider collider) {
+        var index = collider.contactIndex;
+        contactColliders.removeIndex(index);
+        if (index < contactColliders.size) {
+            contactColliders.get(index).contactIndex = index;
+        }
+        collider.contactIndex = -1;
+    }
+
+    public void clear() {
+        for (var collider : layers[all_layer]) {
+            collider.indexed = false;
+            collider.slot = -1;
+            collider.contactIndex = -1;
+            collider.contactHolders.clear();
+            collider.clearContacts();
+        }
+        Arrays.fill(slotColliders, 0, slotCount, null);
+        slotCount = 0;
+        freeSlots.clear();
+        for (int layer = 0; layer <= all_layer; layer++) {
+            layers[layer].clear();
+            buckets[layer].clear();
+        }
+        contactColliders.clear();
+    }
+
+    /**
+     * Re-bucket a single collider, should be called after it moves
+     */
+    public void update(Collider collider) {
+        if (!collider.indexed) return;
+
+        var slot = collider.slot;
+        var bounds = collider.worldRect();
+        if (slotLeft[slot]  == bounds.left() - bucket_margin && slotBottom[slot] == bounds.bottom() - bucket_margin
+         && slotRight[slot] == lastX(bounds) + bucket_margin && slotTop[slot]    == lastY(bounds)   + bucket_margin) {
+            return;
+        }
+        storeBounds(slot, bounds);
+        moved(collider, collider.indexedMask);
+
+        var left   = Math.floorDiv(slotLeft[slot],   bucket_size);
+        var bottom = Math.floorDiv(slotBottom[slot], bucket_size);
+        var right  = Math.floorDiv(slotRight[slot],  bucket_size);
+        var top    = Math.floorDiv(slotTop[slot],    bucket_size);
+        if (left   == collider.bucketLeft  && right == collider.bucketRight
+         && bottom == collider.bucketBottom && top  == collider.bucketTop) {
+            return;
+        }
+
+        erase(collider);
+        insert(collider);
+    }
+
+    /**
+     * Re-bucket every collider that can move, called once per World.update()
+     */
+    public void update() {
+        var colliders = layers[all_layer];
+        for (int i = 0; i < colliders.size; i++) {
+            var collider = colliders.get(i);
+            if (collider.immutable()) continue;
+            update(collider);
+        }
+    }
+
+    /**
+     * Refuse queries while set, the World locks collisions while it runs updates in parallel
+     */
+    public void lock(boolean locked) {
+        this.locked = locked;
+    }
+
+    // called at the start of each query, picks up any move of the querying collider since it was last indexed
+    private void begin(Collider collider) {
+        if (locked) {
+            throw new GdxRuntimeException("Collisions can't be queried from updates that run in parallel");
+        }
+        if (collider != null && collider.indexed && !collider.immutable()) {
+            update(collider);
+        }
+    }
+
+    /**
+     * Find the first collider that matches the mask and overlaps the specified collider
+     * when it is moved by the offset, using only colliders in the layer for one of the
+     * mask's bits that share a bucket with it
+     */
+    public Collider first(Collider collider, int mask, int dx, int dy) {
+        begin(collider);
+
+        // any collider that matches the mask carries its lowest bit, so only that layer needs checking
+        var layer = (mask == 0) ? all_layer : Integer.numberOfTrailingZeros(mask);
+
+        if (!use_broadphase) {
+            var colliders = layers[layer];
+            for (int i = 0; i < colliders.size; i++) {
+                var other = colliders.get(i);
+                var isDifferent = (other != collider && other != excluded);
+                var isMasked = ((other.mask() & mask) == mask);
+                if (isDifferent && isMasked && collider.overlaps(other, dx, dy)) {
+                    return other;
+                }
+            }
+            return null;
+        }
+
+        var bounds = collider.worldRect();
+        var areaLeft   = bounds.left()   + dx;
+        var areaBottom = bounds.bottom() + dy;
+        var areaRight  = lastX(bounds)   + dx;
+        var areaTop    = lastY(bounds)   + dy;
+        var left   = Math.floorDiv(areaLeft,   bucket_size);
+        var bottom = Math.floorDiv(areaBottom, bucket_size);
+        var right  = Math.floorDiv(areaRight,  bucket_size);
+        var top    = Math.floorDiv(areaTop,    bucket_size);
+
+        // colliders can span several buckets, stamp them so each is only tested once per query
+        stamp++;
+
+        for (int x = left; x <= right; x++) {
+            for (int y = bottom; y <= top; y++) {
+                var bucket = buckets[layer].get(key(x, y));
+                if (bucket == null) continue;
+
+                var slots = bucket.items;
+                for (int i = 0; i < bucket.size; i++) {
+                    var slot = slots[i];
+                    if (slotStamps[slot] == stamp) continue;
+                    slotStamps[slot] = stamp;
+
+                    if ((slotMasks[slot] & mask) != mask) continue;
+                    if (!slotOverlaps(slot, areaLeft, areaBottom, areaRight, areaTop)) continue;
+
+                    var other = slotColliders[slot];
+                    if (other != collider && other != excluded && collider.overlaps(other, dx, dy)) {
+                        return other;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Cast a ray from (x, y) in the direction (dx, dy) and find the nearest collider that matches the mask
+     * within maxDist, grids are walked cell by cell. Returns whether anything was hit, filling in the hit.
+     */
+    public boolean raycast(int x, int y, int dx, int dy, float maxDist, int mask, RaycastHit hit) {
+        begin(null);
+        hit.reset();
+        if (dx == 0 && dy == 0) return false;
+
+        var length = (float) Math.sqrt((double) dx * dx + (double) dy * dy);
+        var ux = dx / length;
+        var uy = dy / length;
+        var endX = x + ux * maxDist;
+        var endY = y + uy * maxDist;
+        var areaLeft   = (int) Math.floor(Math.min(x, endX));
+        var areaBottom = (int) Math.floor(Math.min(y, endY));
+        var areaRight  = (int) Math.floor(Math.max(x, endX));
+        var areaTop    = (int) Math.floor(Math.max(y, endY));
+
+        var layer = (mask == 0) ? all_layer : Integer.numberOfTrailingZeros(mask);
+
+        // hit.distance holds the nearest hit so far, anything further away can be skipped
+        hit.distance = maxDist;
+
+        if (!use_broadphase) {
+            var colliders = layers[layer];
+            for (int i = 0; i < colliders.size; i++) {
+                raycastCollider(colliders.get(i), x, y, dx, dy, ux, uy, mask, hit);
+            }
+        } else {
+            var left   = Math.floorDiv(areaLeft,   bucket_size);
+            var bottom = Math.floorDiv(areaBottom, bucket_size);
+            var right  = Math.floorDiv(areaRight,  bucket_size);
+            var top    = Math.floorDiv(areaTop,    bucket_size);
+
+            stamp++;
+
+            for (int bx = left; bx <= right; bx++) {
+                for (int by = bottom; by <= top; by++) {
+                    var bucket = buckets[layer].get(key(bx, by));
+                    if (bucket == null) continue;
+
+                    var slots = bucket.items;
+                    for (int i = 0; i < bucket.size; i++) {
+                        var slot = slots[i];
+                        if (slotStamps[slot] == stamp) continue;
+                        slotStamps[slot] = stamp;
+
+                        if ((slotMasks[slot] & mask) != mask) continue;
+                        if (!slotOverlaps(slot, areaLeft, areaBottom, areaRight, areaTop)) continue;
+                        raycastCollider(slotColliders[slot], x, y, dx, dy, ux, uy, mask, hit);
+                    }
+                }
+            }
+        }
+
+        if (hit.collider == null) {
+            hit.distance = 0;
+            return false;
+        }
+        hit.x = (int) Math.floor(x + ux * hit.distance);
+        hit.y = (int) Math.floor(y + uy * hit.distance);
+        return true;
+    }
+
+    // test a single collider against the ray, keeping it in the hit if it's nearer than the current hit.distance
+    private void raycastCollider(Collider other, int x, int y, int dx, int dy, float ux, float uy, int mask, RaycastHit hit) {
+        if (other == excluded || (other.mask() & mask) != mask) return;
+
+        var bounds = other.worldRect();
+        if (other.shape() == Collider.Shape.rect) {
+            var t = raycastRect(bounds, x, y, ux, uy, hit.distance);
+            if (t >= 0) {
+                hit.distance = t;
+                hit.collider = other;
+                hit.cellX = hit.cellY = -1;
+            }
+        } else if (other.shape() == Collider.Shape.grid) {
+            var distance = hit.distance;
+            var cellX = hit.cellX;
+            var cellY = hit.cellY;
+            if (other.grid().raycast(x - bounds.x, y - bounds.y, dx, dy, distance, hit)) {
+                hit.collider = other;
+            } else {
+                hit.distance = distance;
+                hit.cellX = cellX;
+                hit.cellY = cellY;
+            }
+        }
+    }
+
+    /**
+     * Check that nothing matching the mask blocks a straight line between two points
+     */
+    public boolean lineOfSight(int x0, int y0, int x1, int y1, int mask, RaycastHit hit) {
+        var dx = x1 - x0;
+        var dy = y1 - y0;
+        var dist = (float) Math.sqrt((double) dx * dx + (double) dy * dy);
+        return !raycast(x0, y0, dx, dy, dist, mask, hit);
+    }
+
+    // slab test, returns the distance at which the ray enters the rect (0 if it starts inside) or -1 for a miss
+    private static float raycastRect(RectI rect, int x, int y, float ux, float uy, float maxDist) {
+        var tEnter = 0f;
+        var tExit = maxDist;
+        if (ux == 0) {
+            if (x < rect.x || x >= rect.x + rect.w) return -1;
+        } else {
+            var t0 = (rect.x          - x) / ux;
+            var t1 = (rect.x + rect.w - x) / ux;
+            tEnter = Math.max(tEnter, Math.min(t0, t1));
+            tExit  = Math.min(tExit,  Math.max(t0, t1));
+        }
+        if (uy == 0) {
+            if (y < rect.y || y >= rect.y + rect.h) return -1;
+        } else {
+            var t0 = (rect.y          - y) / uy;
+            var t1 = (rect.y + rect.h - y) / uy;
+            tEnter = Math.max(tEnter, Math.min(t0, t1));
+            tExit  = Math.min(tExit,  Math.max(t0, t1));
+        }
+        if (tEnter > tExit) return -1;
+        if (tEnter == tExit) {
+            // the ray only touches the rect at a single point, which only counts if it's inside the rect
+            var px = x + ux * tEnter;
+            var py = y + uy * tEnter;
+            if (px < rect.x || py < rect.y || px >= rect.x + rect.w || py >= rect.y + rect.h) return -1;
+        }
+        return tEnter;
+    }
+
+    /**
+     * Leave a collider out of first() / check() / sweep queries until this is called again with null,
+     * so that a moving Solid can push and carry things without them being blocked by the Solid itself
+     */
+    public void exclude(Collider collider) {
+        excluded = collider;
+    }
+
+    /**
+     * Collect colliders that match the mask and whose world bounds overlap the area
+     */
+    public void query(RectI area, int mask, Array<Collider> out) {
+        begin(null);
+        var layer = (mask == 0) ? all_layer : Integer.numberOfTrailingZeros(mask);
+        var left   = Math.floorDiv(area.left(),   bucket_size);
+        var bottom = Math.floorDiv(area.bottom(), bucket_size);
+        var right  = Math.floorDiv(lastX(area),   bucket_size);
+        var top    = Math.floorDiv(lastY(area),   bucket_size);
+
+        stamp++;
+
+        for (int x = left; x <= right; x++) {
+            for (int y = bottom; y <= top; y++) {
+                var bucket = buckets[layer].get(key(x, y));
+                if (bucket == null) continue;
+
+                var slots = bucket.items;
+                for (int i = 0; i < bucket.size; i++) {
+                    var slot = slots[i];
+                    if (slotStamps[slot] == stamp) continue;
+                    slotStamps[slot] = stamp;
+
+                    if ((slotMasks[slot] & mask) != mask) continue;
+                    if (!slotOverlaps(slot, area.left(), area.bottom(), lastX(area), lastY(area))) continue;
+
+                    var other = slotColliders[slot];
+                    if (other.worldRect().overlaps(area)) {
+                        out.add(other);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Find every overlap for colliders that have a contact mask, called once per World.update().
+     * Each collider's contact list holds the colliders that carry any bit of its contact mask
+     * and overlap it, along with which of those contacts began and ended since the last pass.
+     * Contact callbacks are run once all the lists are built.
+     */
+    public void updateContacts() {
+        for (int i = 0; i < contactColliders.size; i++) {
+            var collider = contactColliders.get(i);
+            collider.swapContacts();
+            if (collider.active) {
+                gatherContacts(collider);
+            }
+            collider.contactsAt = moves;
+            collider.diffContacts();
+        }
+
+        // callbacks can add or destroy colliders, so run them from a copy of the list
+        contactEvents.clear();
+        contactEvents.addAll(contactColliders);
+        for (int i = 0; i < contactEvents.size; i++) {
+            var collider = contactEvents.get(i);
+            if (collider.indexed) {
+                collider.fireContacts();
+            }
+        }
+        contactEvents.clear();
+    }
+
+    /**
+     * Find a collider's contacts again if it, or any collider carrying a bit of its contact mask,
+     * has moved since they were last found, so reading them between passes doesn't lag behind the moves
+     * that earlier updates in the same tick made
+     */
+    public void refreshContacts(Collider collider) {
+        if (!collider.indexed || collider.contactMask() == 0) return;
+        begin(collider);
+        if (!contactsChanged(collider)) return;
+        collider.refillContacts();
+        if (collider.active) {
+            gatherContacts(collider);
+        }
+        collider.contactsAt = moves;
+    }
+
+    private boolean contactsChanged(Collider collider) {
+        if (collider.movedAt > collider.contactsAt) return true;
+        var contactMask = collider.contactMask();
+        while (contactMask != 0) {
+            var layer = Integer.numberOfTrailingZeros(contactMask);
+            contactMask &= contactMask - 1;
+            if (layerMovedAt[layer] > collider.contactsAt) return true;
+        }
+        return false;
+    }
+
+    private void moved(Collider collider, int mask) {
+        moves++;
+        collider.movedAt = moves;
+        while (mask != 0) {
+            var layer = Integer.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            layerMovedAt[layer] = moves;
+        }
+    }
+
+    private void gatherContacts(Collider collider) {
+        var bounds = collider.worldRect();
+        var areaLeft   = bounds.left();
+        var areaBottom = bounds.bottom();
+        var areaRight  = lastX(bounds);
+        var areaTop    = lastY(bounds);
+        var left   = Math.floorDiv(areaLeft,   bucket_size);
+        var bottom = Math.floorDiv(areaBottom, bucket_size);
+        var right  = Math.floorDiv(areaRight,  bucket_size);
+        var top    = Math.floorDiv(areaTop,    bucket_size);
+
+        // a collider can be in several of the layers being checked, as well as several buckets
+        stamp++;
+
+        var contactMask = collider.contactMask();
+        while (contactMask != 0) {
+            var layer = Integer.numberOfTrailingZeros(contactMask);
+            contactMask &= contactMask - 1;
+
+            for (int x = left; x <= right; x++) {
+                for (int y = bottom; y <= top; y++) {
+                    var bucket = buckets[layer].get(key(x, y));
+                    if (bucket == null) continue;
+
+                    var slots = bucket.items;
+                    for (int i = 0; i < bucket.size; i++) {
+                        var slot = slots[i];
+                        if (slotStamps[slot] == stamp) continue;
+                        slotStamps[slot] = stamp;
+
+                        if (slot == collider.slot) continue;
+                        if (!slotOverlaps(slot, areaLeft, areaBottom, areaRight, areaTop)) continue;
+
+                        var other = slotColliders[slot];
+                        if (collider.overlaps(other, 0, 0)) {
+                            collider.addContact(other);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Find how many whole pixels the collider can move along one axis (only one of amountX / amountY
+     * should be non-zero) before it would overlap a collider that matches the mask.
+     * Equivalent to stepping a pixel at a time and calling first() at each step, but done in one query
+     * by solving for the first step at which each nearby collider would be overlapped.
+     */
+    public int sweep(Collider collider, int mask, int amountX, int amountY) {
+        var steps = Calc.abs(amountX + amountY);
+        if (!collider.active || steps == 0) return steps;
+
+        gather(collider, mask, amountX, amountY);
+
+        var signX = Calc.sign(amountX);
+        var signY = Calc.sign(amountY);
+        var blocked = steps + 1;
+        for (int i = 0; i < candidates.size; i++) {
+            var step = firstStep(collider, candidates.get(i), signX, signY, 1, blocked - 1);
+            if (step != -1) {
+                blocked = step;
+            }
+        }
+        return blocked - 1;
+    }
+
+    /**
+     * Find how many whole pixels the collider can move down before landing on top of a collider that
+     * matches the mask; a landing only counts if the collider wasn't already inside any of the
+     * matching colliders on the step before, so they can be passed through from below (ie. jumpthrus).
+     * Only rect colliders are supported as landing targets.
+     */
+    public int sweepOnto(Collider collider, int mask, int amountY) {
+        var steps = Calc.abs(amountY);
+        if (!collider.active || steps == 0 || amountY > 0) return steps;
+
+        gather(collider, mask, 0, amountY);
+
+        var blocked = steps + 1;
+        for (int i = 0; i < candidates.size; i++) {
+            var other = candidates.get(i);
+            if (other.shape() == Collider.Shape.grid) {
+                throw new GdxRuntimeException("Sweeping onto grid colliders is not supported");
+            }
+
+            // the overlapped steps for a rect are contiguous, so only the first step for each can be a landing
+            var step = firstStep(collider, other, 0, -1, 1, blocked - 1);
+            if (step != -1 && !overlapsAnyCandidate(collider, step - 1)) {
+                blocked = step;
+            }
+        }
+        return blocked - 1;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+     * Collect colliders that match the mask and could be overlapped anywhere along a sweep
+     */
+    private void gather(Collider collider, int mask, int amountX, int amountY) {
+        if (collider.shape() != Collider.Shape.rect) {
+            throw new GdxRuntimeException("Only rect colliders can be swept");
+        }
+
+        begin(collider);
+        candidates.clear();
+        var layer = (mask == 0) ? all_layer : Integer.numberOfTrailingZeros(mask);
+
+        if (!use_broadphase) {
+            var colliders = layers[layer];
+            for (int i = 0; i < colliders.size; i++) {
+                var other = colliders.get(i);
+                if (other != collider && other != excluded && (other.mask() & mask) == mask) {
+                    candidates.add(other);
+                }
+            }
+            return;
+        }
+
+        // the swept area covers both the start and end positions
+        var bounds = collider.worldRect();
+        var areaLeft   = bounds.left()   + Math.min(amountX, 0);
+        var areaBottom = bounds.bottom() + Math.min(amountY, 0);
+        var areaRight  = lastX(bounds)   + Math.max(amountX, 0);
+        var areaTop    = lastY(bounds)   + Math.max(amountY, 0);
+        var left   = Math.floorDiv(areaLeft,   bucket_size);
+        var bottom = Math.floorDiv(areaBottom, bucket_size);
+        var right  = Math.floorDiv(areaRight,  bucket_size);
+        var top    = Math.floorDiv(areaTop,    bucket_size);
+
+        stamp++;
+
+        for (int x = left; x <= right; x++) {
+            for (int y = bottom; y <= top; y++) {
+                var bucket = buckets[layer].get(key(x, y));
+                if (bucket == null) continue;
+
+                var slots = bucket.items;
+                for (int i = 0; i < bucket.size; i++) {
+                    var slot = slots[i];
+                    if (slotStamps[slot] == stamp) continue;
+                    slotStamps[slot] = stamp;
+
+                    if ((slotMasks[slot] & mask) != mask) continue;
+                    if (!slotOverlaps(slot, areaLeft, areaBottom, areaRight, areaTop)) continue;
+
+                    var other = slotColliders[slot];
+                    if (other != collider && other != excluded) {
+                        candidates.add(other);
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean overlapsAnyCandidate(Collider collider, int stepDown) {
+        for (int i = 0; i < candidates.size; i++) {
+            if (firstStep(collider, candidates.get(i), 0, -1, stepDown, stepDown) != -1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Find the first step in [from, to] at which the rect collider, moved that many pixels
+     * in the direction (signX, signY), overlaps the other collider; or -1 if it doesn't
+     */
+    private int firstStep(Collider collider, Collider other, int signX, int signY, int from, int to) {
+        if (from > to) return -1;
+
+        var bounds = collider.worldRect();
+        var otherBounds = other.worldRect();
+
+        var horizontal = (signX != 0);
+        var sign = horizontal ? signX : signY;
+        var along      = horizontal ? bounds.x : bounds.y;
+        var alongSize  = horizontal ? bounds.w : bounds.h;
+        var across     = horizontal ? bounds.y : bounds.x;
+        var acrossSize = horizontal ? bounds.h : bounds.w;
+
+        if (other.shape() == Collider.Shape.rect) {
+            var otherAlong      = horizontal ? otherBounds.x : otherBounds.y;
+            var otherAlongSize  = horizontal ? otherBounds.w : otherBounds.h;
+            var otherAcross     = horizontal ? otherBounds.y : otherBounds.x;
+            var otherAcrossSize = horizontal ? otherBounds.h : otherBounds.w;
+
+            // movement doesn't change the overlap across the direction of travel
+            if (across >= otherAcross + otherAcrossSize || otherAcross >= across + acrossSize) {
+                return -1;
+            }
+
+            // range of steps where the rects overlap along the direction of travel
+            int first, last;
+            if (sign > 0) {
+                first = otherAlong - (along + alongSize) + 1;
+                last  = (otherAlong + otherAlongSize) - along - 1;
+            } else {
+                first = along - (otherAlong + otherAlongSize) + 1;
+                last  = (along + alongSize) - otherAlong - 1;
+            }
+            first = Math.max(first, from);
+            last  = Math.min(last, to);
+            return (first <= last) ? first : -1;
+        } else if (other.shape() == Collider.Shape.grid) {
+            // put the rect in the same space as the grid
+            along  -= horizontal ? otherBounds.x : otherBounds.y;
+            across -= horizontal ? otherBounds.y : otherBounds.x;
+            return firstGridStep(other.grid(), horizontal, sign, along, alongSize, across, acrossSize, from, to);
+        }
+        return -1;
+    }
+
+    /**
+     * Walk the grid's columns (or rows) in the direction of travel, finding the first step
+     * at which a rect (in grid space) enters one with a filled cell in its span
+     */
+    private static int firstGridStep(Collider.Grid grid, boolean horizontal, int sign,
+                                     int along, int alongSize, int across, int acrossSize, int from, int to) {
+        var size = grid.tileSize;
+        var alongCount  = horizontal ? grid.cols : grid.rows;
+        var acrossCount = horizontal ? grid.rows : grid.cols;
+
+        // the cells spanned across the direction of travel don't change during the sweep
+        var acrossStart = Math.max(Calc.floorDiv(across, size), 0);
+        var acrossEnd   = Math.min(Calc.ceilDiv(across + acrossSize, size), acrossCount);
+        if (acrossStart >= acrossEnd) return -1;
+
+        if (sign > 0) {
+            for (int i = Math.max(Calc.floorDiv(along + from, size), 0); i < alongCount; i++) {
+                var first = Math.max(i * size - (along + alongSize) + 1, from);
+                var last  = (i + 1) * size - along - 1;
+                if (first > to) break;
+                if (first <= last && isSpanFilled(grid, horizontal, i, acrossStart, acrossEnd)) {
+                    return first;
+                }
+            }
+        } else {
+            for (int i = Math.min(Calc.ceilDiv(along - from + alongSize, size), alongCount) - 1; i >= 0; i--) {
+                var first = Math.max(along - (i + 1) * size + 1, from);
+                var last  = (along + alongSize) - i * size - 1;
+                if (first > to) break;
+                if (first <= last && isSpanFilled(grid, horizontal, i, acrossStart, acrossEnd)) {
+                    return first;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isSpanFilled(Collider.Grid grid, boolean horizontal, int index, int start, int end) {
+        if (!horizontal) {
+            return grid.any(index, start, end);
+        }
+        for (int row = start; row < end; row++) {
+            if (grid.get(index, row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addToLayers(Collider collider) {
+        collider.indexedMask = collider.mask();
+        slotMasks[collider.slot] = collider.indexedMask;
+        for (int layer = 0; layer <= all_layer; layer++) {
+            if (inLayer(collider.indexedMask, layer)) {
+                slotLayerIndex[layer][collider.slot] = layers[layer].size;
+                layers[layer].add(collider);
+            }
+        }
+        insert(collider);
+    }
+
+    private void removeFromLayers(Collider collider) {
+        erase(collider);
+        for (int layer = 0; layer <= all_layer; layer++) {
+            if (!inLayer(collider.indexedMask, layer)) continue;
+            // layers are unordered, the last collider takes the removed one's place
+            var colliders = layers[layer];
+            var index = slotLayerIndex[layer][collider.slot];
+            colliders.removeIndex(index);
+            if (index < colliders.size) {
+                slotLayerIndex[layer][colliders.get(index).slot] = index;
+            }
+        }
+    }
+
+    private void insert(Collider collider) {
+        var slot = collider.slot;
+        storeBounds(slot, collider.worldRect());
+        collider.bucketLeft   = Math.floorDiv(slotLeft[slot],   bucket_size);
+        collider.bucketBottom = Math.floorDiv(slotBottom[slot], bucket_size);
+        collider.bucketRight  = Math.floorDiv(slotRight[slot],  bucket_size);
+        collider.bucketTop    = Math.floorDiv(slotTop[slot],    bucket_size);
+
+        for (int layer = 0; layer <= all_layer; layer++) {
+            if (!inLayer(collider.indexedMask, layer)) continue;
+            for (int x = collider.bucketLeft; x <= collider.bucketRight; x++) {
+                for (int y = collider.bucketBottom; y <= collider.bucketTop; y++) {
+                    var key = key(x, y);
+                    var bucket = buckets[layer].get(key);
+                    if (bucket == null) {
+                        bucket = new IntArray(false, 8);
+                        buckets[layer].put(key, bucket);
+                    }
+                    bucket.add(slot);
+                }
+            }
+        }
+        collider.indexed = true;
+    }
+
+    private void erase(Collider collider) {
+        for (int layer = 0; layer <= all_layer; layer++) {
+            if (!inLayer(collider.indexedMask, layer)) continue;
+            for (int x = collider.bucketLeft; x <= collider.bucketRight; x++) {
+                for (int y = collider.bucketBottom; y <= collider.bucketTop; y++) {
+                    var bucket = buckets[layer].get(key(x, y));
+                    if (bucket != null) {
+                        bucket.removeValue(collider.slot);
+                    }
+                }
+            }
+        }
+        collider.indexed = false;
+    }
+
+    private void allocateSlot(Collider collider) {
+        int slot;
+        if (freeSlots.notEmpty()) {
+            slot = freeSlots.pop();
+        } else {
+            slot = slotCount++;
+            if (slot == slotColliders.length) {
+                var capacity = slot * 2;
+                slotColliders = Arrays.copyOf(slotColliders, capacity);
+                slotMasks  = Arrays.copyOf(slotMasks,  capacity);
+                slotStamps = Arrays.copyOf(slotStamps, capacity);
+                slotLeft   = Arrays.copyOf(slotLeft,   capacity);
+                slotBottom = Arrays.copyOf(slotBottom, capacity);
+                slotRight  = Arrays.copyOf(slotRight,  capacity);
+                slotTop    = Arrays.copyOf(slotTop,    capacity);
+                for (int layer = 0; layer <= all_layer; layer++) {
+                    slotLayerIndex[layer] = Arrays.copyOf(slotLayerIndex[layer], capacity);
+                }
+            }
+        }
+        slotColliders[slot] = collider;
+        slotMasks[slot] = 0;
+        slotStamps[slot] = 0;
+        collider.slot = slot;
+    }
+
+    private void freeSlot(Collider collider) {
+        slotColliders[collider.slot] = null;
+        freeSlots.add(collider.slot);
+        collider.slot = -1;
+    }
+
+    private void storeBounds(int slot, RectI bounds) {
+        slotLeft[slot]   = bounds.left()   - bucket_margin;
+        slotBottom[slot] = bounds.bottom() - bucket_margin;
+        slotRight[slot]  = lastX(bounds)   + bucket_margin;
+        slotTop[slot]    = lastY(bounds)   + bucket_margin;
+    }
+
+    // the stored bounds are padded the same as the buckets, so this never rejects a collider the buckets would find
+    private boolean slotOverlaps(int slot, int left, int bottom, int right, int top) {
+        return slotLeft[slot] <= right && left <= slotRight[slot]
+            && slotBottom[slot] <= top && bottom <= slotTop[slot];
+    }
+
+    private static boolean inLayer(int mask, int layer) {
+        return (layer == all_layer) || (mask & (1 << layer)) != 0;
+    }
+
+    // last pixel covered by the bounds, degenerate bounds still cover the pixel they sit on
+    private static int lastX(RectI bounds) {
+        return bounds.x + Math.max(bounds.w, 1) - 1;
+    }
+
+    private static int lastY(RectI bounds) {
+        return bounds.y + Math.max(bounds.h, 1) - 1;
+    }
+
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+}
@@ -39,7 +39,7 @@ public class Hurtable extends Component {
             if (hurtCheck != null) {
                 wasHurt = hurtCheck.check(this);
             } else {
-                wasHurt = collider.check(hurtBy);
+                wasHurt = collider.checkContact(hurtBy);
             }
 
             if (wasHurt) {
@@ -3,6 +3,7 @@ package zendo.games.grotto.components;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Rectangle;
 import zendo.games.grotto.ecs.Component;
 
 public class Image extends Component {
@@ -38,6 +39,17 @@ public class Image extends Component {
         height = 0;
     }
 
+    @Override
+    public boolean bounds(Rectangle out) {
+        out.set(entity.position.x + xOffset, entity.position.y + yOffset, width, height);
+        return true;
+    }
+
+    @Override
+    public Texture texture() {
+        return (region != null) ? region.getTexture() : null;
+    }
+
     @Override
     public void render(SpriteBatch batch) {
         batch.draw(region, entity.position.x + xOffset, entity.position.y + yOffset, width, height);
@@ -3,7 +3,6 @@ package zendo.games.grotto.components;
 import com.badlogic.gdx.math.Vector2;
 import zendo.games.grotto.ecs.Component;
 import zendo.games.grotto.utils.Calc;
-import zendo.games.grotto.utils.Point;
 
 public class Mover extends Component {
 
@@ -26,6 +25,9 @@ public class Mover extends Component {
 
     private Vector2 remainder;
 
+    // the moving Solid this mover is standing on, if any
+    private Solid riding;
+
     public Mover() {
         super();
         speed = new Vector2();
@@ -35,7 +37,8 @@ public class Mover extends Component {
     @Override
     public void reset() {
         super.reset();
-        speed = null;
+        // keep the owned objects around so that pooled instances can be reused without allocating
+        if (speed != null) speed.setZero();
         collider = null;
         onHitX = null;
         onHitY = null;
@@ -43,14 +46,31 @@ public class Mover extends Component {
         onSquishY = null;
         gravity = 0;
         friction = 0;
-        remainder = null;
+        if (remainder != null) remainder.setZero();
+        riding = null;
+    }
+
+    @Override
+    public void destroyed() {
+        if (riding != null) {
+            riding.removeRider(this);
+        }
+    }
+
+    public Solid riding() {
+        return riding;
+    }
+
+    void riding(Solid solid) {
+        riding = solid;
     }
 
     public boolean isRiding(Solid solid) {
         var riding = false;
-        if (collider != null) {
-            var isColliding  = collider.overlaps(solid.collider, Point.zero());
-            var isAboveSolid = collider.overlaps(solid.collider, Point.at(0, -1));
+        var solidCollider = solid.collider();
+        if (collider != null && solidCollider != null) {
+            var isColliding  = collider.overlaps(solidCollider, 0, 0);
+            var isAboveSolid = collider.overlaps(solidCollider, 0, -1);
             riding = !isColliding && isAboveSolid;
         }
         return riding;
@@ -64,7 +84,7 @@ public class Mover extends Component {
         }
 
         // apply gravity if appropriate
-        var isNotCollidingWithGround = (collider == null) || (!collider.check(Collider.Mask.solid, Point.at(0, -1)));
+        var isNotCollidingWithGround = (collider == null) || (!collider.check(Collider.Mask.solid, 0, -1));
         if (gravity != 0 && isNotCollidingWithGround) {
             speed.y += gravity * dt;
         }
@@ -84,6 +104,29 @@ public class Mover extends Component {
         // move by the integer values
         moveX(intMoveX, onSquishX);
         moveY(intMoveY, onSquishY);
+
+        updateRiding();
+    }
+
+    /**
+     * Register with the moving Solid this mover has landed on, or deregister from the one it left
+     */
+    private void updateRiding() {
+        if (collider == null) return;
+
+        if (riding != null && !isRiding(riding)) {
+            riding.removeRider(this);
+        }
+
+        if (riding == null) {
+            var below = collider.first(Collider.Mask.moving_solid, 0, -1);
+            if (below != null) {
+                var solid = below.get(Solid.class);
+                if (solid != null && isRiding(solid)) {
+                    solid.addRider(this);
+                }
+            }
+        }
     }
 
     public boolean moveX(int amount, OnSquish onSquish) {
@@ -91,22 +134,21 @@ public class Mover extends Component {
             entity.position.x += amount;
         } else {
             var sign = Calc.sign(amount);
+            var distance = collider.sweepX(Collider.Mask.solid, amount);
 
-            while (amount != 0) {
-                if (collider.check(Collider.Mask.solid, Point.at(sign, 0))) {
-                    if (onHitX != null) {
-                        onHitX.hit(this);
-                    } else {
-                        stopX();
-                    }
-                    if (onSquish != null) {
-                        onSquish.squish(this);
-                    }
-                    return true;
-                }
+            entity.position.x += sign * distance;
+            collider.reindex();
 
-                amount -= sign;
-                entity.position.x += sign;
+            if (distance != Calc.abs(amount)) {
+                if (onHitX != null) {
+                    onHitX.hit(this);
+                } else {
+                    stopX();
+                }
+                if (onSquish != null) {
+                    onSquish.squish(this);
+                }
+                return true;
             }
         }
 
@@ -118,26 +160,25 @@ public class Mover extends Component {
             entity.position.y += amount;
         } else {
             var sign = Calc.sign(amount);
+            var distance = collider.sweepY(Collider.Mask.solid, amount);
+            var isMovingDown = sign < 0;
+            if (isMovingDown) {
+                distance = Math.min(distance, collider.sweepOnto(Collider.Mask.jumpthru, amount));
+            }
 
-            while (amount != 0) {
-                var isSolid = collider.check(Collider.Mask.solid, Point.at(0, sign));
-                var isJumpthru = collider.check(Collider.Mask.jumpthru, Point.at(0, sign));
-                var isInsideJumpthru = collider.check(Collider.Mask.jumpthru);
-                var isMovingDown = sign < 0;
-                if (isSolid || (isJumpthru && !isInsideJumpthru && isMovingDown)) {
-                    if (onHitY != null) {
-                        onHitY.hit(this);
-                    } else {
-                        stopY();
-                    }
-                    if (onSquish != null) {
-                        onSquish.squish(this);
-                    }
-                    return true;
-                }
+            entity.position.y += sign * distance;
+            collider.reindex();
 
-                amount -= sign;
-                entity.position.y += sign;
+            if (distance != Calc.abs(amount)) {
+                if (onHitY != null) {
+                    onHitY.hit(this);
+                } else {
+                    stopY();
+                }
+                if (onSquish != null) {
+                    onSquish.squish(this);
+                }
+                return true;
             }
         }
 
@@ -168,8 +209,8 @@ public class Mover extends Component {
             return false;
         }
 
-        var hitSolid = collider.check(Collider.Mask.solid, Point.at(0, dist));
-        var isJumpthru = collider.check(Collider.Mask.jumpthru, Point.at(0, dist));
+        var hitSolid = collider.check(Collider.Mask.solid, 0, dist);
+        var isJumpthru = collider.check(Collider.Mask.jumpthru, 0, dist);
         var isInsideJumpthru = collider.check(Collider.Mask.jumpthru);
         var isMovingDown = dist < 0;
         var hitJumpthru = isJumpthru && !isInsideJumpthru && isMovingDown;
@@ -186,7 +227,7 @@ public class Mover extends Component {
             return false;
         }
 
-        var isJumpthru = collider.check(Collider.Mask.jumpthru, Point.at(0, dist));
+        var isJumpthru = collider.check(Collider.Mask.jumpthru, 0, dist);
         var isInsideJumpthru = collider.check(Collider.Mask.jumpthru);
         var isMovingDown = dist < 0;
         var onJumpthru = isJumpthru && !isInsideJumpthru && isMovingDown;
@@ -25,7 +25,7 @@ public class Pickupable extends Component {
     @Override
     public void update(float dt) {
         if (collider != null) {
-            if (collider.check(pickupBy)) {
+            if (collider.checkContact(pickupBy)) {
                 if (onPickup != null) {
                     onPickup.pickup(this);
                 }
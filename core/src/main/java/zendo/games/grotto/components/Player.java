@@ -11,8 +11,6 @@ import zendo.games.grotto.input.Input;
 import zendo.games.grotto.input.VirtualButton;
 import zendo.games.grotto.input.VirtualStick;
 import zendo.games.grotto.utils.Calc;
-import zendo.games.grotto.utils.Point;
-import zendo.games.grotto.utils.RectI;
 import zendo.games.grotto.utils.Time;
 
 public class Player extends Component {
@@ -228,6 +226,7 @@ public class Player extends Component {
                     if (jumpButton.pressed()) {
                         jumpButton.clearPressBuffer();
                         entity.position.y -= 1;
+                        mover.collider.reindex();
                         EffectFactory.spriteAnimOneShot(world(), entity.position, "hero", "land");
                     }
                 }
@@ -255,7 +254,7 @@ public class Player extends Component {
         {
             if (!(state instanceof HurtState)) {
                 var collider = get(Collider.class);
-                var hitbox = collider.first(Collider.Mask.enemy);
+                var hitbox = collider.firstContact(Collider.Mask.enemy);
                 if (hitbox != null) {
                     // TODO: this is a kludge, ideally there should be no special cases here
                     //       but the shroom's hit here gets registered before a player stomp
@@ -467,7 +466,7 @@ public class Player extends Component {
                         gravityAmount = gravity_fastfall;
                     }
                     // wall behavior
-                    else if (xInput != 0 && mover.collider.check(Collider.Mask.solid, Point.at(xInput, 0))) {
+                    else if (xInput != 0 && mover.collider.check(Collider.Mask.solid, xInput, 0)) {
                         // wall sliding
                         if (mover.speed.y < 0) {
                             wallsliding = true;
@@ -619,11 +618,11 @@ public class Player extends Component {
             attackEntity.position.set(entity.position);
 
             // the rect for this collider is updated during attack state based on what frame is active
-            attackCollider = attackEntity.add(Collider.makeRect(new RectI()), Collider.class);
-            attackCollider.mask = Collider.Mask.player_attack;
+            attackCollider = attackEntity.add(Collider.class).rect(0, 0, 0, 0);
+            attackCollider.mask(Collider.Mask.player_attack);
 
             // this is the actual weapon slashing animation, different from the player's 'attacking' animation
-            attackEffectAnim = attackEntity.add(new Animator("hero", "attack-effect"), Animator.class);
+            attackEffectAnim = attackEntity.add(Animator.class).sprite("hero").play("attack-effect");
             attackEffectAnim.mode = Animator.LoopMode.none;
             attackEffectAnim.depth = 2;
         }
@@ -668,7 +667,7 @@ public class Player extends Component {
                         gravityAmount = gravity_fastfall;
                     }
                     // wall behavior
-                    else if (xInput != 0 && mover.collider.check(Collider.Mask.solid, Point.at(xInput, 0))) {
+                    else if (xInput != 0 && mover.collider.check(Collider.Mask.solid, xInput, 0)) {
                         // wall sliding
                         if (mover.speed.y < 0) {
                             wallsliding = true;
@@ -762,6 +761,8 @@ public class Player extends Component {
                     rect.x = -(rect.x + rect.w);
                     attackCollider.rect(rect);
                 }
+                // the attack entity was moved directly rather than by a Mover
+                attackCollider.reindex();
             }
         }
     }
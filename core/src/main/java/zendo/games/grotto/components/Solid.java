@@ -3,8 +3,9 @@ package zendo.games.grotto.components;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
 import zendo.games.grotto.ecs.Component;
+import zendo.games.grotto.ecs.ComponentHandle;
 import zendo.games.grotto.map.WorldMap;
 import zendo.games.grotto.factories.EffectFactory;
 import zendo.games.grotto.utils.*;
@@ -54,11 +55,10 @@ public class Solid extends Component {
 
     public float speed;
     public RectI bounds;
-    public Collider collider;
+    public ComponentHandle<Collider> collider = ComponentHandle.none();
 
     private String id;
     private float t;
-    private Vector2 remainder;
     private Color debugColor;
 
     private boolean forward;
@@ -76,7 +76,6 @@ public class Solid extends Component {
         this.t = 0;
         this.forward = true;
         this.bounds = info.bounds;
-        this.remainder = VectorPool.dim2.obtain();
         this.waypoints = new ArrayList<>();
         for (var waypointInfo : waypointInfos) {
             var waypoint = new Waypoint();
@@ -93,11 +92,7 @@ public class Solid extends Component {
         t = 0;
         forward = false;
         bounds = null;
-        collider = null;
-        if (remainder != null) {
-            VectorPool.dim2.free(remainder);
-        }
-        remainder = null;
+        collider = ComponentHandle.none();
         waypoints = null;
     }
 
@@ -128,23 +123,15 @@ public class Solid extends Component {
             interp.x = (1f - tSegment) * start.point.x + (tSegment) * end.point.x;
             interp.y = (1f - tSegment) * start.point.y + (tSegment) * end.point.y;
 
-            // limit movement to integer intervals
-            var x = (int) interp.x;
-            var y = (int) interp.y;
-
-            // how much will we move in this step
-            // TODO: since these are used to carry/push other entities,
-            //  need to track interp remainders so entities don't fall behind
-            //  (like currently with player being carried downwards)
-            int moveX = x - bounds.x;
-            int moveY = y - bounds.y;
-
-            // push or carry other movers
-            updateOtherMovers(moveX, moveY);
+            // limit movement to integer intervals, the interpolated point is absolute so rounding it
+            // keeps the solid (and anything it carries) within half a pixel of the path without
+            // carrying a remainder, where truncating towards zero left it trailing by up to a pixel
+            var x = Math.round(interp.x);
+            var y = Math.round(interp.y);
 
-            // move to new position
-            bounds.setPosition(x, y);
-            entity.position.set(x, y);
+            // move one axis at a time, pushing or carrying other movers as we go
+            moveX(x - bounds.x);
+            moveY(y - bounds.y);
         }
         VectorPool.dim2.free(interp);
 
@@ -181,8 +168,42 @@ public class Solid extends Component {
 
     // ------------------------------------------------------------------------
 
-    private final List<Mover> allMovers = new ArrayList<>();
-    private final List<Mover> ridingMovers = new ArrayList<>();
+    // movers standing on this solid, they register and deregister themselves (see Mover.updateRiding)
+    private final Array<Mover> riders = new Array<>(false, 4);
+    private final Array<Collider> candidates = new Array<>(false, 8);
+    private final Array<Mover> pushed = new Array<>(false, 4);
+    private final RectI sweptBounds = RectI.zero();
+
+    public Array<Mover> riders() {
+        return riders;
+    }
+
+    public Collider collider() {
+        return collider.get(world());
+    }
+
+    void addRider(Mover mover) {
+        if (mover.riding() != null) {
+            mover.riding().removeRider(mover);
+        }
+        riders.add(mover);
+        mover.riding(this);
+    }
+
+    void removeRider(Mover mover) {
+        riders.removeValue(mover, true);
+        if (mover.riding() == this) {
+            mover.riding(null);
+        }
+    }
+
+    @Override
+    public void destroyed() {
+        while (!riders.isEmpty()) {
+            removeRider(riders.peek());
+        }
+    }
+
     private final Mover.OnSquish onSquish = new Mover.OnSquish() {
         boolean triggered = false;
         @Override
@@ -192,7 +213,7 @@ public class Solid extends Component {
                 Time.pause_for(0.2f);
                 EffectFactory.squish(world(), mover.entity().position);
                 if (mover.get(Player.class) != null) {
-                    // TODO: execution of updateOtherMovers continues after triggering this
+                    // TODO: execution of move() continues after triggering this
                     //       need a better way to trigger a global state reload
 //                    world().first(GameContainer.class).game.reload();
                     Gdx.app.log("player squished", "");
@@ -202,89 +223,76 @@ public class Solid extends Component {
             }
         }
     };
-    private void updateOtherMovers(int moveX, int moveY) {
-        // update lists of other movers
-        {
-            allMovers.clear();
-            ridingMovers.clear();
-            var mover = world().first(Mover.class);
-            while (mover != null) {
-                allMovers.add(mover);
-                if (mover.isRiding(this)) {
-                    ridingMovers.add(mover);
-                }
-                mover = (Mover) mover.next;
+
+    private void moveX(int amount) {
+        if (amount == 0) return;
+        move(amount, 0);
+    }
+
+    private void moveY(int amount) {
+        if (amount == 0) return;
+        move(0, amount);
+    }
+
+    /**
+     * Move the solid along one axis, then push any movers it now overlaps out of the way
+     * and carry along any movers that were riding on it. The solid is excluded from collision
+     * queries while doing so, otherwise the movers it pushes or carries would be blocked by it.
+     */
+    private void move(int moveX, int moveY) {
+        // riders are standing on the solid's current position, so confirm them before moving
+        for (int i = riders.size - 1; i >= 0; i--) {
+            var rider = riders.get(i);
+            if (rider.collider == null || !rider.isRiding(this)) {
+                removeRider(rider);
             }
         }
 
-        // apply movement to other movers, either pushing or carrying them
-        // TODO: when pushing off a ledge, the push completes before gravity takes effect
-
-        // check horizontal movement
-        if (moveX != 0) {
-            if (moveX > 0) {
-                for (var mover : allMovers) {
-                    if (mover.collider == null) continue;
-                    if (mover.collider.overlaps(this.collider, Point.zero())) {
-                        // push right
-                        var thisRect = this.collider.worldRect();
-                        var thatRect = mover.collider.worldRect();
-                        var amount = thisRect.right() - thatRect.left();
-                        mover.moveX(amount, onSquish);
-                    } else if (ridingMovers.contains(mover)) {
-                        // carry right
-                        mover.moveX(moveX, null);
-                    }
-                }
-            } else {
-                for (var mover : allMovers) {
-                    if (mover.collider == null) continue;
-                    if (mover.collider.overlaps(this.collider, Point.zero())) {
-                        // push left
-                        var thisRect = this.collider.worldRect();
-                        var thatRect = mover.collider.worldRect();
-                        var amount = thisRect.left() - thatRect.right();
-                        mover.moveX(amount, onSquish);
-                    } else if (ridingMovers.contains(mover)) {
-                        // carry left
-                        mover.moveX(moveX, null);
-                    }
-                }
+        // move the solid
+        bounds.setPosition(bounds.x + moveX, bounds.y + moveY);
+        entity.position.set(bounds.x, bounds.y);
+        var collider = collider();
+        if (collider == null) return;
+        collider.reindex();
+
+        // find colliders in the area swept by the move, only these could need pushing
+        var rect = collider.worldRect();
+        sweptBounds.set(
+                rect.x - Math.max(moveX, 0), rect.y - Math.max(moveY, 0),
+                rect.w + Math.abs(moveX),    rect.h + Math.abs(moveY));
+        candidates.clear();
+        world().collisions().query(sweptBounds, 0, candidates);
+
+        world().collisions().exclude(collider);
+        {
+            // push
+            pushed.clear();
+            for (int i = 0; i < candidates.size; i++) {
+                var other = candidates.get(i);
+                if (other == collider || other.entity() == null) continue;
+
+                var mover = other.get(Mover.class);
+                if (mover == null || mover.collider != other) continue;
+                if (!other.overlaps(collider, 0, 0)) continue;
+
+                var thisRect = collider.worldRect();
+                var thatRect = other.worldRect();
+                if      (moveX > 0) mover.moveX(thisRect.right()  - thatRect.left(),   onSquish);
+                else if (moveX < 0) mover.moveX(thisRect.left()   - thatRect.right(),  onSquish);
+                else if (moveY > 0) mover.moveY(thisRect.top()    - thatRect.bottom(), onSquish);
+                else if (moveY < 0) mover.moveY(thisRect.bottom() - thatRect.top(),    onSquish);
+                pushed.add(mover);
             }
-        }
 
-        // check vertical movement
-        if (moveY != 0) {
-            if (moveY > 0) {
-                for (var mover : allMovers) {
-                    if (mover.collider == null) continue;
-                    if (mover.collider.overlaps(this.collider, Point.zero())) {
-                        // push up
-                        var thisRect = this.collider.worldRect();
-                        var thatRect = mover.collider.worldRect();
-                        var amount = thisRect.top() - thatRect.bottom();
-                        mover.moveY(amount, onSquish);
-                    } else if (ridingMovers.contains(mover)) {
-                        // carry up
-                        mover.moveY(moveY, null);
-                    }
-                }
-            } else {
-                for (var mover : allMovers) {
-                    if (mover.collider == null) continue;
-                    if (mover.collider.overlaps(this.collider, Point.zero())) {
-                        // push down
-                        var thisRect = this.collider.worldRect();
-                        var thatRect = mover.collider.worldRect();
-                        var amount = thisRect.bottom() - thatRect.top();
-                        mover.moveY(amount, onSquish);
-                    } else if (ridingMovers.contains(mover)) {
-                        // carry down
-                        mover.moveY(moveY, null);
-                    }
-                }
+            // carry
+            for (int i = 0; i < riders.size; i++) {
+                var rider = riders.get(i);
+                if (pushed.contains(rider, true) || rider.entity() == null) continue;
+                if (moveX != 0) rider.moveX(moveX, null);
+                if (moveY != 0) rider.moveY(moveY, null);
             }
         }
+        world().collisions().exclude(null);
     }
 
 }
@@ -1,5 +1,6 @@
 package zendo.games.grotto.components;
 
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
@@ -41,6 +42,11 @@ public class Text extends Component {
         layout = null;
     }
 
+    @Override
+    public Texture texture() {
+        return (font != null) ? font.getRegion().getTexture() : null;
+    }
+
     @Override
     public void render(SpriteBatch batch) {
         var scaleX = font.getScaleX();
@@ -1,6 +1,9 @@
 package zendo.games.grotto.components;
 
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.utils.GdxRuntimeException;
 import zendo.games.grotto.ecs.Component;
@@ -8,11 +11,31 @@ import zendo.games.grotto.utils.Point;
 
 public class Tilemap extends Component {
 
+    // cells drawn and cells that would have been drawn without culling, since the last resetCounts()
+    public static int cells_submitted = 0;
+    public static int cells_total = 0;
+    // baked layers drawn from their SpriteCache in one go, since the last resetCounts()
+    public static int cached_draws = 0;
+
+    // draw baked tilemaps from their SpriteCache, rather than submitting each cell through the batch
+    public static boolean use_baked = true;
+
+    // floats per baked cell, two triangles of (x, y, color, u, v) as an unindexed SpriteCache takes them
+    static final int baked_cell_size = 30;
+
     private int tileSize;
     private int rows;
     private int cols;
 
     protected TextureRegion[] grid;
+    private int filled;
+    // the one texture every filled cell comes from, or null if they're mixed, worked out again after the cells change
+    private Texture texture;
+    private boolean textureStale;
+
+    // set by bake(), cleared if the cells change afterwards
+    private SpriteCache cache;
+    private int cacheId;
 
     public Point offset;
 
@@ -23,7 +46,12 @@ public class Tilemap extends Component {
         this.cols = cols;
         this.rows = rows;
         this.grid = new TextureRegion[rows * cols];
+        this.filled = 0;
+        this.texture = null;
+        this.textureStale = false;
         this.offset = Point.zero();
+        this.cache = null;
+        this.cacheId = -1;
     }
 
     @Override
@@ -33,7 +61,12 @@ public class Tilemap extends Component {
         rows = 0;
         cols = 0;
         grid = null;
+        filled = 0;
+        texture = null;
+        textureStale = false;
         offset = null;
+        cache = null;
+        cacheId = -1;
     }
 
     public int tileSize() {
@@ -48,11 +81,99 @@ public class Tilemap extends Component {
         return cols;
     }
 
+    public int filled() {
+        return filled;
+    }
+
+    public boolean baked() {
+        return cache != null && cacheId != -1;
+    }
+
+    /**
+     * Compile the filled cells, at their current world positions, into a cache in the given SpriteCache
+     * so they can be drawn with one call. The tilemap mustn't move afterwards, and changing a cell
+     * drops it back to drawing through the batch. Must not be called between cache.begin() and end().
+     */
+    public void bake(SpriteCache cache) {
+        var vertices = vertices();
+        cache.beginCache();
+
+        // vertices() writes the cells out in this same order, so add them a run of cells sharing a texture at a time
+        Texture texture = null;
+        var start = 0;
+        var cell = 0;
+        for (int x = 0; x < cols; x++) {
+            for (int y = 0; y < rows; y++) {
+                var region = grid[x + y * cols];
+                if (region == null) {
+                    continue;
+                }
+                if (region.getTexture() != texture) {
+                    if (cell > start) {
+                        cache.add(texture, vertices, start * baked_cell_size, (cell - start) * baked_cell_size);
+                    }
+                    texture = region.getTexture();
+                    start = cell;
+                }
+                cell++;
+            }
+        }
+        if (cell > start) {
+            cache.add(texture, vertices, start * baked_cell_size, (cell - start) * baked_cell_size);
+        }
+
+        this.cacheId = cache.endCache();
+        this.cache = cache;
+    }
+
+    /**
+     * The filled cells at their current world positions, column by column, in the vertex layout bake() hands to the cache
+     */
+    float[] vertices() {
+        var originX = entity.position.x + offset.x;
+        var originY = entity.position.y + offset.y;
+        var color = Color.WHITE_FLOAT_BITS;
+        var vertices = new float[filled * baked_cell_size];
+        var i = 0;
+        for (int x = 0; x < cols; x++) {
+            for (int y = 0; y < rows; y++) {
+                var region = grid[x + y * cols];
+                if (region == null) {
+                    continue;
+                }
+                var left   = originX + x * tileSize;
+                var bottom = originY + y * tileSize;
+                var right  = left + tileSize;
+                var top    = bottom + tileSize;
+                var u  = region.getU();
+                var v  = region.getV2();
+                var u2 = region.getU2();
+                var v2 = region.getV();
+                i = vertex(vertices, i, left,  bottom, color, u,  v);
+                i = vertex(vertices, i, left,  top,    color, u,  v2);
+                i = vertex(vertices, i, right, top,    color, u2, v2);
+                i = vertex(vertices, i, right, top,    color, u2, v2);
+                i = vertex(vertices, i, right, bottom, color, u2, v);
+                i = vertex(vertices, i, left,  bottom, color, u,  v);
+            }
+        }
+        return vertices;
+    }
+
+    private static int vertex(float[] vertices, int i, float x, float y, float color, float u, float v) {
+        vertices[i]     = x;
+        vertices[i + 1] = y;
+        vertices[i + 2] = color;
+        vertices[i + 3] = u;
+        vertices[i + 4] = v;
+        return i + 5;
+    }
+
     public void setCell(int x, int y, TextureRegion texture) {
         if (x < 0 || y < 0 || x >= cols || y >= rows) {
             throw new GdxRuntimeException("Tilemap indices out of bounds");
         }
-        grid[x + y * cols] = texture;
+        set(x + y * cols, texture);
     }
 
     public void setCells(int x, int y, int w, int h, TextureRegion texture) {
@@ -61,7 +182,7 @@ public class Tilemap extends Component {
         }
         for (int ix = x; ix < x + w; ix++) {
             for (int iy = y; iy < y + h; iy++) {
-                grid[ix + iy * cols] = texture;
+                set(ix + iy * cols, texture);
             }
         }
     }
@@ -73,20 +194,94 @@ public class Tilemap extends Component {
         return grid[x + y * cols];
     }
 
+    private void set(int index, TextureRegion texture) {
+        cacheId = -1;
+        textureStale = true;
+        if (grid[index] != null) filled--;
+        if (texture != null) filled++;
+        grid[index] = texture;
+    }
+
+    @Override
+    public Texture texture() {
+        if (textureStale) {
+            textureStale = false;
+            texture = null;
+            for (var region : grid) {
+                if (region == null) continue;
+                if (texture == null) {
+                    texture = region.getTexture();
+                } else if (region.getTexture() != texture) {
+                    // cells from different pages, so the World can't group this layer with anything
+                    texture = null;
+                    break;
+                }
+            }
+        }
+        return texture;
+    }
+
+    public static void resetCounts() {
+        cells_submitted = 0;
+        cells_total = 0;
+        cached_draws = 0;
+    }
+
+    /**
+     * A baked map that's on screen is drawn whole from its cache, and the World ends the batch around
+     * it and any baked layers that follow it (see render(SpriteCache))
+     */
+    @Override
+    public SpriteCache cache() {
+        return (use_baked && baked() && inView()) ? cache : null;
+    }
+
+    @Override
+    public void render(SpriteCache cache) {
+        cells_total += filled;
+        cache.draw(cacheId);
+        cached_draws++;
+    }
+
     @Override
     public void render(SpriteBatch batch) {
-        for (int x = 0; x < cols; x++) {
-            for (int y = 0; y < rows; y++) {
+        cells_total += filled;
+
+        // skip the whole map if it's off screen, eg. the tilemaps of rooms other than the one the camera is in
+        if (!inView()) {
+            return;
+        }
+
+        // otherwise only draw the cells that overlap the view
+        var originX = entity.position.x + offset.x;
+        var originY = entity.position.y + offset.y;
+        var view = world().view();
+        var minX = Math.max(0, (int) Math.floor((view.x - originX) / tileSize));
+        var minY = Math.max(0, (int) Math.floor((view.y - originY) / tileSize));
+        var maxX = Math.min(cols - 1, (int) Math.floor((view.x + view.width - originX) / tileSize));
+        var maxY = Math.min(rows - 1, (int) Math.floor((view.y + view.height - originY) / tileSize));
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
                 var texture = grid[x + y * cols];
                 if (texture == null) {
                     continue;
                 }
                 batch.draw(texture,
-                        entity.position.x + x * tileSize + offset.x,
-                        entity.position.y + y * tileSize + offset.y,
+                        originX + x * tileSize,
+                        originY + y * tileSize,
                         tileSize, tileSize);
+                cells_submitted++;
             }
         }
     }
 
+    // whether any of the map is inside what the batch's projection can see, worked out by the World at the start of its render
+    private boolean inView() {
+        var originX = entity.position.x + offset.x;
+        var originY = entity.position.y + offset.y;
+        var view = world().view();
+        return originX + cols * tileSize > view.x && originX < view.x + view.width
+            && originY + rows * tileSize > view.y && originY < view.y + view.height;
+    }
+
 }
@@ -29,6 +29,12 @@ public class Timer extends Component {
         this.duration = duration;
     }
 
+    public Timer start(float duration, OnEnd onEnd) {
+        this.duration = duration;
+        this.onEnd = onEnd;
+        return this;
+    }
+
     @Override
     public void update(float dt) {
         if (duration > 0) {
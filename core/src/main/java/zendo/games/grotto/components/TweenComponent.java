@@ -9,6 +9,8 @@ import zendo.games.grotto.ecs.Component;
  * so the tween wouldn't get killed when the entity or component gets destroyed and whatever new entity
  * reuses the old entity's object would continue tweening. So we wrap a Tween in a component that
  * ensures the tween gets killed when the component gets destroyed.
+ * Plain references to entities or components that are kept across frames have the same problem,
+ * hold an EntityHandle or ComponentHandle instead, which resolves to null once the original is destroyed.
  */
 public class TweenComponent extends Component {
 
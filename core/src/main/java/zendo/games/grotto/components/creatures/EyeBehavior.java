@@ -2,12 +2,9 @@ package zendo.games.grotto.components.creatures;
 
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import com.badlogic.gdx.math.Intersector;
-import com.badlogic.gdx.math.Vector3;
-import com.badlogic.gdx.math.collision.BoundingBox;
-import com.badlogic.gdx.math.collision.Ray;
 import zendo.games.grotto.components.Animator;
 import zendo.games.grotto.components.Collider;
+import zendo.games.grotto.components.Collisions;
 import zendo.games.grotto.components.Mover;
 import zendo.games.grotto.components.Player;
 import zendo.games.grotto.ecs.Component;
@@ -20,6 +17,7 @@ public class EyeBehavior extends Component {
     private final float threat_range = 100f;
     private final float secs_between_attacks = 1f;
     private final float secs_after_retreat = 1f;
+    private final float sight_range = 400f;
 
     enum State { idle, emerge, attack, retreat }
 
@@ -27,26 +25,24 @@ public class EyeBehavior extends Component {
     private float stateTime;
     private boolean didShoot;
     private boolean emerge;
-    private Ray lineOfSight;
-    private BoundingBox playerBounds;
-    private final Vector3 playerBoundsMin = new Vector3();
-    private final Vector3 playerBoundsMax = new Vector3();
+    private final Collisions.RaycastHit hit;
+    private final Point sightStart = Point.zero();
+    private final Point sightEnd = Point.zero();
 
     public EyeBehavior() {
         state = State.idle;
-        lineOfSight = new Ray();
-        playerBounds = new BoundingBox();
+        hit = new Collisions.RaycastHit();
     }
 
     @Override
     public void reset() {
         super.reset();
-        this.state = null;
+        // back to how the constructor leaves it, and keep the hit so that pooled instances can be reused
+        this.state = State.idle;
         this.stateTime = 0;
         this.didShoot = false;
         this.emerge = false;
-        this.lineOfSight = null;
-        this.playerBounds = null;
+        if (hit != null) hit.reset();
     }
 
     @Override
@@ -72,16 +68,16 @@ public class EyeBehavior extends Component {
         anim.scale.set(dir, 1);
 
         // has player crossed the line of sight ray to trigger an attack
-        var playerCollider = player.entity().get(Collider.class);
-        var pos = player.entity().position;
-        var rect = playerCollider.rect();
-        playerBounds.set(
-                playerBoundsMin.set(pos.x + rect.x, pos.y + rect.y, -1),
-                playerBoundsMax.set(pos.x + rect.x + rect.w, pos.y + rect.y + rect.h, 1));
-
+        // the sight line stops at the first wall, so the player can't be spotted through solid ground
         var eyePos = entity().position;
-        lineOfSight.set(eyePos.x, eyePos.y + 11, 0, dir, 0, 0);
-        var inLineOfSight = Intersector.intersectRayBoundsFast(lineOfSight, playerBounds);
+        sightStart.set(eyePos.x, eyePos.y + 11);
+        var collisions = world().collisions();
+        var sightRange = sight_range;
+        if (collisions.raycast(sightStart.x, sightStart.y, dir, 0, sightRange, Collider.Mask.solid, hit)) {
+            sightRange = hit.distance;
+        }
+        sightEnd.set(sightStart.x + (int) (dir * sightRange), sightStart.y);
+        var inLineOfSight = collisions.raycast(sightStart.x, sightStart.y, dir, 0, sightRange, Collider.Mask.player, hit);
 
         emerge |= inLineOfSight;
 
@@ -210,7 +206,7 @@ public class EyeBehavior extends Component {
 
         // update collider orientation based on facing direction
         if (dir < 0) {
-            rect = collider.rect();
+            var rect = collider.rect();
             rect.x = -(rect.x + rect.w);
             collider.rect(rect);
         }
@@ -226,15 +222,13 @@ public class EyeBehavior extends Component {
     public void render(ShapeRenderer shapes) {
         var shapeType = shapes.getCurrentType();
 
-        // entity position
+        // line of sight
         {
-            var length = 400f;
             shapes.set(ShapeRenderer.ShapeType.Filled);
             shapes.setColor(Color.WHITE);
             shapes.rectLine(
-                    lineOfSight.origin.x, lineOfSight.origin.y,
-                    lineOfSight.origin.x + lineOfSight.direction.x * length,
-                    lineOfSight.origin.y + lineOfSight.direction.y * length,
+                    sightStart.x, sightStart.y,
+                    sightEnd.x, sightEnd.y,
                     1, Color.LIME, Color.RED
             );
             shapes.setColor(Color.WHITE);
@@ -13,8 +13,6 @@ import static zendo.games.grotto.components.creatures.ThwompBehavior.State.*;
 
 public class ThwompBehavior extends Component {
 
-    private static final Point underneath = Point.at(0, -1);
-
     private final float rest_duration = 1f;
     private final float warn_duration = 0.33f;
     private final float attack_velocity = -150f;
@@ -25,6 +23,7 @@ public class ThwompBehavior extends Component {
     private State state;
     private float stateTime;
     private Point startingPoint;
+    private final Collisions.RaycastHit hit = new Collisions.RaycastHit();
 
     public ThwompBehavior() {}
 
@@ -53,7 +52,11 @@ public class ThwompBehavior extends Component {
 
         var horizDist = player.entity().position.x - entity.position.x;
         var dist = Calc.abs(horizDist);
-        var playerIsClose = player.isAlive() && (dist < collider.rect().w / 2);
+        var playerIsClose = player.isAlive() && (dist < collider.rect().w / 2)
+                && world().collisions().lineOfSight(
+                        entity.position.x, entity.position.y,
+                        player.entity().position.x, player.entity().position.y,
+                        Collider.Mask.solid, hit);
 
         stateTime += dt;
         switch (state) {
@@ -77,9 +80,9 @@ public class ThwompBehavior extends Component {
                     EffectFactory.spriteAnimOneShot(world(), entity.position.x - collider.rect().w / 2 - 2, entity.position.y, "hero", "land");
                     EffectFactory.spriteAnimOneShot(world(), entity.position.x + collider.rect().w / 2 - 3, entity.position.y, "hero", "land");
                     changeState(retreat);
-                } else if (mover.collider.check(Collider.Mask.player, underneath)) {
+                } else if (mover.collider.check(Collider.Mask.player, 0, -1)) {
                     // TODO: this also triggers if the player jumps and hits the bottom of the thwomp anytime it's moving down
-                    player.get(Collider.class).mask = 0;
+                    player.get(Collider.class).mask(0);
                     player.get(Animator.class).visible = false;
                     player.get(Mover.class).active = false;
                     player.kill();
@@ -89,7 +92,7 @@ public class ThwompBehavior extends Component {
                     EffectFactory.spriteAnimOneShot(world(), player.entity().position, "hero", "land");
 
                     var game = world().first(GameContainer.class).game;
-                    entity.add(new Timer(1f, (self) -> game.showRestartPrompt()), Timer.class);
+                    entity.add(Timer.class).start(1f, (self) -> game.showRestartPrompt());
 
                     changeState(retreat);
                 }
@@ -99,6 +102,7 @@ public class ThwompBehavior extends Component {
                 mover.speed.y = retreat_velocity;
                 if (entity.position.y >= startingPoint.y) {
                     entity.position.y = startingPoint.y;
+                    collider.reindex();
                     mover.speed.y = 0;
                     changeState(idle);
                 }
@@ -0,0 +1,55 @@
+package zendo.games.grotto.ecs;
+
+import com.badlogic.gdx.utils.Bits;
+
+/**
+ * What a component type's update() reads and writes, declared with World.declare() so that a parallel
+ * World can run the updates of types that don't conflict at the same time.
+ *
+ * Declared updates can run off the main thread, so they can't add or destroy anything or query Collisions,
+ * and should only touch the component types they declare (their own type is always included as a write).
+ * Types that aren't declared are assumed to touch anything, and always run alone on the main thread.
+ */
+public class Access {
+
+    final Bits reads;
+    final Bits writes;
+    boolean isolated;
+
+    public Access() {
+        reads = new Bits();
+        writes = new Bits();
+        isolated = false;
+    }
+
+    @SafeVarargs
+    public final Access reads(Class<? extends Component>... types) {
+        for (var type : types) {
+            reads.set(Component.Types.id(type));
+        }
+        return this;
+    }
+
+    @SafeVarargs
+    public final Access writes(Class<? extends Component>... types) {
+        for (var type : types) {
+            writes.set(Component.Types.id(type));
+        }
+        return this;
+    }
+
+    /**
+     * Each instance's update() only touches that instance, so a big batch of them can be split across threads
+     */
+    public Access isolated() {
+        isolated = true;
+        return this;
+    }
+
+    boolean conflicts(Access other) {
+        return writes.intersects(other.writes)
+            || writes.intersects(other.reads)
+            || reads.intersects(other.writes);
+    }
+
+}
@@ -1,12 +1,13 @@
 package zendo.games.grotto.ecs;
 
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.GdxRuntimeException;
 
-import java.util.HashMap;
-import java.util.Map;
-
 public class Component extends ListNode<Component> {
 
     protected Entity entity;
@@ -19,6 +20,13 @@ public class Component extends ListNode<Component> {
 
     public String tag;
 
+    // set once the World has run destroyed(), while a deferred destroy waits to be applied
+    boolean destroying;
+
+    // this component's spots in the World's render queues, created once and kept across pooling
+    RenderQueue.Node batchNode;
+    RenderQueue.Node shapesNode;
+
     public Component() {
         reset();
     }
@@ -32,13 +40,41 @@ public class Component extends ListNode<Component> {
         this.active = true;
         this.visible = true;
         this.tag = "";
+        this.destroying = false;
     }
 
     public void update(float dt) {}
     public void render(SpriteBatch batch) {}
+    public void render(SpriteCache cache) {}
     public void render(ShapeRenderer shapes) {}
+    public void added() {}
     public void destroyed() {}
 
+    /**
+     * Set out to the world space area that render(SpriteBatch) draws into and return true,
+     * so the World can skip the call when it's off screen. By default there are no bounds and it's always called.
+     */
+    public boolean bounds(Rectangle out) {
+        return false;
+    }
+
+    /**
+     * The texture that render(SpriteBatch) draws from, if it's just the one, so the World can draw
+     * components at the same depth grouped by texture rather than flushing the batch between them
+     */
+    public Texture texture() {
+        return null;
+    }
+
+    /**
+     * The SpriteCache to draw this component from with render(SpriteCache) instead of render(SpriteBatch), or null.
+     * The World ends the batch and begins the cache around a run of components drawing from the same cache,
+     * so consecutive ones only flush the batch once.
+     */
+    public SpriteCache cache() {
+        return null;
+    }
+
     public Entity entity() {
         return entity;
     }
@@ -71,18 +107,115 @@ public class Component extends ListNode<Component> {
     static class Types {
         private static int counter = 0;
 
-        private static final Map<Class<? extends Component>, Integer> componentTypeMap= new HashMap<>();
-        private static final Map<Integer, Class<? extends Component>> typeComponentMap = new HashMap<>();
+        // bumped whenever a type is added or starts being dispatched to, so the World knows to rebuild its lists
+        private static int version = 0;
+
+        private static final Array<Class<?>> typeComponents = new Array<>();
+
+        // the id is assigned the first time a class is seen and then cached on the class itself,
+        // so lookups after that don't hash or box anything
+        private static final ClassValue<TypeId> componentTypes = new ClassValue<>() {
+            @Override
+            protected TypeId computeValue(Class<?> clazz) {
+                synchronized (typeComponents) {
+                    if (counter >= World.max_component_types) {
+                        throw new GdxRuntimeException("Too many component types, max is " + World.max_component_types);
+                    }
+                    typeComponents.add(clazz);
+                    version++;
+                    return new TypeId(counter++, dispatches.get(clazz));
+                }
+            }
+        };
+
+        // which of the no-op base methods a concrete class replaces, worked out once per class
+        private static final ClassValue<Dispatch> dispatches = new ClassValue<>() {
+            @Override
+            protected Dispatch computeValue(Class<?> clazz) {
+                return new Dispatch(
+                        overrides(clazz, "update", float.class),
+                        overrides(clazz, "render", SpriteBatch.class),
+                        overrides(clazz, "render", ShapeRenderer.class));
+            }
+        };
+
+        private static final Array<TypeId> typeIds = new Array<>();
+
+        private static class Dispatch {
+            final boolean updates;
+            final boolean rendersBatch;
+            final boolean rendersShapes;
+            Dispatch(boolean updates, boolean rendersBatch, boolean rendersShapes) {
+                this.updates = updates;
+                this.rendersBatch = rendersBatch;
+                this.rendersShapes = rendersShapes;
+            }
+        }
+
+        // which methods the World dispatches for the type, the ones that no instance added under it overrides are skipped
+        private static class TypeId {
+            final int id;
+            boolean updates;
+            boolean rendersBatch;
+            boolean rendersShapes;
+            TypeId(int id, Dispatch dispatch) {
+                this.id = id;
+                this.updates = dispatch.updates;
+                this.rendersBatch = dispatch.rendersBatch;
+                this.rendersShapes = dispatch.rendersShapes;
+                typeIds.add(this);
+            }
+        }
+
+        private static boolean overrides(Class<?> clazz, String name, Class<?> param) {
+            try {
+                return clazz.getMethod(name, param).getDeclaringClass() != Component.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Account for an instance being added under its type, it can be a subclass of the type it was added as
+         * (eg. an anonymous new Component() {...} added as Component.class) that overrides methods the type doesn't
+         */
+        static void include(Component component) {
+            var typeId = typeIds.get(component.type);
+            var dispatch = dispatches.get(component.getClass());
+            if ((dispatch.updates       && !typeId.updates)
+             || (dispatch.rendersBatch  && !typeId.rendersBatch)
+             || (dispatch.rendersShapes && !typeId.rendersShapes)) {
+                synchronized (typeComponents) {
+                    typeId.updates       |= dispatch.updates;
+                    typeId.rendersBatch  |= dispatch.rendersBatch;
+                    typeId.rendersShapes |= dispatch.rendersShapes;
+                    version++;
+                }
+            }
+        }
 
         public static int count() { return counter; }
 
+        public static int version() { return version; }
+
         public static int id(Class<? extends Component> clazz) {
-            if (!componentTypeMap.containsKey(clazz)) {
-                final int type = Types.counter++;
-                componentTypeMap.put(clazz, type);
-                typeComponentMap.put(type, clazz);
-            }
-            return componentTypeMap.get(clazz);
+            return componentTypes.get(clazz).id;
+        }
+
+        public static Class<?> of(int type) {
+            return typeComponents.get(type);
+        }
+
+        public static boolean updates(int type) {
+            return typeIds.get(type).updates;
+        }
+
+        public static boolean rendersBatch(int type) {
+            return typeIds.get(type).rendersBatch;
+        }
+
+        public static boolean rendersShapes(int type) {
+            return typeIds.get(type).rendersShapes;
         }
     }
 
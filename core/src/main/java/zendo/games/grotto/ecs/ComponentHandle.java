@@ -0,0 +1,54 @@
+package zendo.games.grotto.ecs;
+
+/**
+ * Reference to a component that can be held across frames, resolves to null once the component
+ * it was made from is destroyed even if the pooled object has since been reused (see EntityHandle)
+ */
+@SuppressWarnings("unchecked")
+public final class ComponentHandle<T extends Component> {
+
+    private static final ComponentHandle<?> none = new ComponentHandle<>(0L);
+
+    // slot in the low 32 bits, generation in the high 32 bits
+    public final long id;
+
+    private ComponentHandle(long id) {
+        this.id = id;
+    }
+
+    public static <T extends Component> ComponentHandle<T> none() {
+        return (ComponentHandle<T>) none;
+    }
+
+    public static <T extends Component> ComponentHandle<T> of(T component) {
+        var world = (component != null) ? component.world() : null;
+        if (world == null) {
+            return none();
+        }
+        return new ComponentHandle<>(world.componentHandles.handle(component));
+    }
+
+    public T get(World world) {
+        return (world != null) ? (T) world.componentHandles.resolve(id) : null;
+    }
+
+    public boolean alive(World world) {
+        return get(world) != null;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return (other instanceof ComponentHandle) && ((ComponentHandle<?>) other).id == id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "ComponentHandle(" + (int) id + ":" + (int) (id >>> 32) + ")";
+    }
+
+}
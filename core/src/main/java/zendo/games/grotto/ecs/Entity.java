@@ -1,9 +1,11 @@
 package zendo.games.grotto.ecs;
 
+import com.badlogic.gdx.utils.Bits;
 import com.badlogic.gdx.utils.GdxRuntimeException;
 import zendo.games.grotto.utils.Point;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class Entity extends ListNode<Entity> {
@@ -14,9 +16,18 @@ public class Entity extends ListNode<Entity> {
     public final Point position;
     public final List<Component> components;
 
+    // set while a deferred destroy waits to be applied
+    boolean destroying;
+
+    // first live component of each type indexed by type id, and which types are present
+    private Component[] componentsByType;
+    private final Bits componentTypes;
+
     public Entity() {
         this.position = Point.zero();
         this.components = new ArrayList<>();
+        this.componentsByType = new Component[16];
+        this.componentTypes = new Bits();
         reset();
     }
 
@@ -26,8 +37,11 @@ public class Entity extends ListNode<Entity> {
         this.active = true;
         this.visible = true;
         this.world = null;
+        this.destroying = false;
         this.position.set(0, 0);
         this.components.clear();
+        Arrays.fill(this.componentsByType, null);
+        this.componentTypes.clear();
     }
 
     public void destroy() {
@@ -41,16 +55,72 @@ public class Entity extends ListNode<Entity> {
         return world.add(this, component, clazz);
     }
 
+    public <T extends Component> T add(Class<T> clazz) {
+        if (world == null) {
+            throw new GdxRuntimeException("Entity must be assigned to a World");
+        }
+        return world.add(this, clazz);
+    }
+
     public <T extends Component> T get(Class<T> clazz) {
         if (world == null) {
             throw new GdxRuntimeException("Entity must be assigned to a World");
         }
-        for (var component : components) {
-            if (component.type == Component.Types.id(clazz)) {
-                return clazz.cast(component);
+        int type = Component.Types.id(clazz);
+        if (type >= componentsByType.length) {
+            return null;
+        }
+        return clazz.cast(componentsByType[type]);
+    }
+
+    public boolean has(Class<? extends Component> clazz) {
+        return componentTypes.get(Component.Types.id(clazz));
+    }
+
+    public Bits types() {
+        return componentTypes;
+    }
+
+    // ------------------------------------------------------------------------
+
+    Component component(int type) {
+        return (type < componentsByType.length) ? componentsByType[type] : null;
+    }
+
+    /**
+     * Keep the type table up to date after a component was added to the components list
+     */
+    void attach(Component component) {
+        int type = component.type;
+        if (type >= componentsByType.length) {
+            componentsByType = Arrays.copyOf(componentsByType, Math.max(type + 1, componentsByType.length * 2));
+        }
+        // get() returns the first one added if there are several of the same type
+        if (componentsByType[type] == null) {
+            componentsByType[type] = component;
+            componentTypes.set(type);
+        }
+    }
+
+    /**
+     * Keep the type table up to date after a component was removed from the components list
+     */
+    void detach(Component component) {
+        int type = component.type;
+        if (componentsByType[type] != component) {
+            return;
+        }
+
+        // fall back to the next one of the same type, if there is one
+        componentsByType[type] = null;
+        componentTypes.clear(type);
+        for (var other : components) {
+            if (other.type == type) {
+                componentsByType[type] = other;
+                componentTypes.set(type);
+                break;
             }
         }
-        return null;
     }
 
 }
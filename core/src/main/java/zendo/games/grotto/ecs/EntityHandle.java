@@ -0,0 +1,54 @@
+package zendo.games.grotto.ecs;
+
+/**
+ * Reference to an entity that can be held across frames: entities are pooled, so a plain reference
+ * ends up pointing at whatever entity reuses the object, while a handle just resolves to null
+ * once the entity it was made from is destroyed.
+ *
+ *     var handle = EntityHandle.of(entity);
+ *     ...
+ *     var entity = handle.get(world);
+ *     if (entity != null) { ... }
+ */
+public final class EntityHandle {
+
+    public static final EntityHandle none = new EntityHandle(0L);
+
+    // slot in the low 32 bits, generation in the high 32 bits
+    public final long id;
+
+    private EntityHandle(long id) {
+        this.id = id;
+    }
+
+    public static EntityHandle of(Entity entity) {
+        if (entity == null || entity.world == null) {
+            return none;
+        }
+        return new EntityHandle(entity.world.entityHandles.handle(entity));
+    }
+
+    public Entity get(World world) {
+        return (world != null) ? world.entityHandles.resolve(id) : null;
+    }
+
+    public boolean alive(World world) {
+        return get(world) != null;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return (other instanceof EntityHandle) && ((EntityHandle) other).id == id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "EntityHandle(" + (int) id + ":" + (int) (id >>> 32) + ")";
+    }
+
+}
@@ -0,0 +1,64 @@
+package zendo.games.grotto.ecs;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Slot table behind EntityHandle and ComponentHandle: each live node holds a slot, and each slot
+ * has a generation that's bumped when its node is destroyed, so handles from before then stop resolving
+ * even after the pooled object and the slot are both handed out again.
+ */
+class Handles<T extends ListNode<T>> {
+
+    private final Array<T> owners;
+    private final IntArray generations;
+    private final IntArray free;
+
+    Handles() {
+        owners = new Array<>(true, 64);
+        generations = new IntArray(true, 64);
+        free = new IntArray(false, 64);
+    }
+
+    void claim(T node) {
+        int slot;
+        if (free.size > 0) {
+            slot = free.pop();
+            owners.set(slot, node);
+        } else {
+            slot = owners.size;
+            owners.add(node);
+            // start at 1 so that a handle of 0 never resolves
+            generations.add(1);
+        }
+        node.slot = slot;
+    }
+
+    void release(T node) {
+        int slot = node.slot;
+        if (slot == -1) return;
+        owners.set(slot, null);
+        generations.incr(slot, 1);
+        free.add(slot);
+        node.slot = -1;
+    }
+
+    long handle(T node) {
+        if (node == null || node.slot == -1) return 0L;
+        return pack(node.slot, generations.get(node.slot));
+    }
+
+    T resolve(long handle) {
+        int slot = (int) handle;
+        int generation = (int) (handle >>> 32);
+        if (slot < 0 || slot >= owners.size || generations.get(slot) != generation) {
+            return null;
+        }
+        return owners.get(slot);
+    }
+
+    static long pack(int slot, int generation) {
+        return ((long) generation << 32) | (slot & 0xffffffffL);
+    }
+
+}
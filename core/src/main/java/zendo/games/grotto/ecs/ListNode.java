@@ -7,9 +7,17 @@ public abstract class ListNode<T> implements Pool.Poolable {
     public T next;
     public T prev;
 
+    // position in the World's dense array of live nodes, so removal doesn't have to search for it
+    int index;
+
+    // slot in the World's handle table, -1 when not live
+    int slot;
+
     public void reset() {
         next = null;
         prev = null;
+        index = -1;
+        slot = -1;
     }
 
     public T next() { return next; }
@@ -0,0 +1,121 @@
+package zendo.games.grotto.ecs;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Bits;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+/**
+ * Cached list of the entities that have every one of a set of component types, along with
+ * those components, kept up to date by the World as components are added and destroyed.
+ * Get one from World.query(), look up the columns of components once and iterate them by index:
+ *
+ *     var query = world.query(Mover.class, Collider.class);
+ *     var movers = query.components(Mover.class);
+ *     var colliders = query.components(Collider.class);
+ *     for (int i = 0; i < query.size(); i++) {
+ *         var mover = movers.get(i);
+ *         var collider = colliders.get(i);
+ *     }
+ *
+ * Matches are swap-removed, so the order isn't stable and a loop that destroys
+ * the components it's iterating should walk backwards.
+ */
+@SuppressWarnings("unchecked")
+public class Query {
+
+    final int[] types;
+    final Bits required;
+
+    private final Array<Entity> entities;
+    // columns[k].get(i) is the component of types[k] for entities.get(i)
+    private final Array<Component>[] columns;
+    private final ObjectIntMap<Entity> indices;
+
+    Query(int[] types) {
+        this.types = types;
+        this.required = new Bits();
+        for (int type : types) {
+            required.set(type);
+        }
+        this.entities = new Array<>(false, 16);
+        this.columns = (Array<Component>[]) new Array<?>[types.length];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = new Array<>(false, 16);
+        }
+        this.indices = new ObjectIntMap<>();
+    }
+
+    public int size() {
+        return entities.size;
+    }
+
+    public Entity entity(int index) {
+        return entities.get(index);
+    }
+
+    /**
+     * The live column of components of one of the query's types, lined up with entity(index).
+     * It's the query's own list, kept up to date as matches come and go, so it can be looked up
+     * once and held onto rather than resolving the type on every get(), but it mustn't be changed.
+     */
+    public <T extends Component> Array<T> components(Class<T> clazz) {
+        int type = Component.Types.id(clazz);
+        for (int i = 0; i < types.length; i++) {
+            if (types[i] == type) {
+                return (Array<T>) columns[i];
+            }
+        }
+        throw new GdxRuntimeException("Query doesn't include " + clazz.getSimpleName());
+    }
+
+    /**
+     * The component of the given type for entity(index), this resolves the type's column on every call,
+     * so a loop over the query should use components() instead
+     */
+    public <T extends Component> T get(int index, Class<T> clazz) {
+        return components(clazz).get(index);
+    }
+
+    // ------------------------------------------------------------------------
+
+    boolean is(int a, int b, int c) {
+        var count = (b == -1) ? 1 : (c == -1) ? 2 : 3;
+        return types.length == count
+            && types[0] == a
+            && (count < 2 || types[1] == b)
+            && (count < 3 || types[2] == c);
+    }
+
+    /**
+     * Add, update, or remove an entity's match, should be called after one of its components
+     * with a type in this query is added or destroyed
+     */
+    void refresh(Entity entity) {
+        var index = indices.get(entity, -1);
+        if (entity.types().containsAll(required)) {
+            if (index == -1) {
+                index = entities.size;
+                entities.add(entity);
+                for (var column : columns) {
+                    column.add(null);
+                }
+                indices.put(entity, index);
+            }
+            // an entity can have several components of a type, this keeps the one get() would return
+            for (int i = 0; i < types.length; i++) {
+                columns[i].set(index, entity.component(types[i]));
+            }
+        } else if (index != -1) {
+            indices.remove(entity, -1);
+            entities.removeIndex(index);
+            for (var column : columns) {
+                column.removeIndex(index);
+            }
+            if (index < entities.size) {
+                indices.put(entities.get(index), index);
+            }
+        }
+    }
+
+}
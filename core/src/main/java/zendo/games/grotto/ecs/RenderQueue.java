@@ -0,0 +1,216 @@
+package zendo.games.grotto.ecs;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Live components in the order they render, kept between frames rather than rebuilt and sorted every time.
+ *
+ * Components go into a bucket per (depth, type), and the buckets are kept sorted, so walking them gives
+ * the same order as a stable sort by depth over the per-type lists. Within a bucket components stay in the
+ * order they were added, each is numbered as it's added and moved components are put back by that number.
+ * Only types that override the render method for this queue's renderer (see Component.Types) are added at all,
+ * so the likes of Timer never get walked.
+ *
+ * New components wait until the next begin() to be bucketed, since their depth usually gets set just after
+ * they're added. Depth is a plain field, so a later change is noticed the next time the component comes up
+ * in next() and it's moved to its new bucket then. Visibility is checked by the caller while walking.
+ */
+class RenderQueue {
+
+    static class Node {
+        Component component;
+        // when it was added to the queue, orders the nodes within a bucket
+        long seq;
+        Bucket bucket;
+        boolean pending;
+        // neighbours in its bucket, or in the pending list while it's waiting for begin()
+        Node prev;
+        Node next;
+    }
+
+    static class Bucket {
+        final int depth;
+        final int type;
+        Node head;
+        Node tail;
+
+        Bucket(int depth, int type) {
+            this.depth = depth;
+            this.type = type;
+        }
+    }
+
+    private final boolean shapes;
+    private final Array<Bucket> buckets;
+    private Node pendingHead;
+    private Node pendingTail;
+    private long added;
+    private int size;
+
+    // walk state for next()
+    private int cursorBucket;
+    private Node cursorNode;
+
+    RenderQueue(boolean shapes) {
+        this.shapes = shapes;
+        this.buckets = new Array<>(true, 16);
+        this.pendingHead = null;
+        this.pendingTail = null;
+        this.added = 0;
+        this.size = 0;
+        begin();
+    }
+
+    int size() {
+        return size;
+    }
+
+    void add(Component component) {
+        var renders = shapes ? Component.Types.rendersShapes(component.type) : Component.Types.rendersBatch(component.type);
+        if (!renders) return;
+
+        var node = node(component);
+        if (node.bucket != null || node.pending) return;
+        node.seq = added++;
+        node.pending = true;
+        node.prev = pendingTail;
+        node.next = null;
+        if (pendingTail != null) {
+            pendingTail.next = node;
+        } else {
+            pendingHead = node;
+        }
+        pendingTail = node;
+        size++;
+    }
+
+    void remove(Component component) {
+        var node = shapes ? component.shapesNode : component.batchNode;
+        if (node == null) return;
+        if (node.pending) {
+            node.pending = false;
+            if (node.prev != null) node.prev.next = node.next; else pendingHead = node.next;
+            if (node.next != null) node.next.prev = node.prev; else pendingTail = node.prev;
+            node.prev = null;
+            node.next = null;
+            size--;
+            return;
+        }
+        if (node.bucket == null) return;
+        if (node == cursorNode) {
+            cursorNode = node.next;
+        }
+        unlink(node);
+        size--;
+    }
+
+    /**
+     * Start walking the queue from the lowest depth
+     */
+    void begin() {
+        cursorBucket = -1;
+        cursorNode = null;
+        var node = pendingHead;
+        while (node != null) {
+            var next = node.next;
+            node.pending = false;
+            insert(bucket(node.component.depth, node.component.type), node);
+            node = next;
+        }
+        pendingHead = null;
+        pendingTail = null;
+    }
+
+    /**
+     * The next component in render order, or null once the walk is done
+     */
+    Component next() {
+        while (true) {
+            while (cursorNode == null) {
+                if (++cursorBucket >= buckets.size) {
+                    cursorBucket = buckets.size;
+                    return null;
+                }
+                cursorNode = buckets.get(cursorBucket).head;
+            }
+
+            var node = cursorNode;
+            cursorNode = node.next;
+
+            var component = node.component;
+            var current = node.bucket;
+            if (component.depth != current.depth) {
+                // re-bucket it, if that puts it further along then it'll come up again there,
+                // otherwise it's returned now, which is only out of order for the frame its depth changed
+                unlink(node);
+                var target = bucket(component.depth, component.type);
+                insert(target, node);
+                if (compare(target, current.depth, current.type) > 0) continue;
+            }
+            return component;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    // the node is kept on the component across pooling, so re-adding a recycled component doesn't allocate
+    private Node node(Component component) {
+        var node = shapes ? component.shapesNode : component.batchNode;
+        if (node == null) {
+            node = new Node();
+            node.component = component;
+            if (shapes) component.shapesNode = node;
+            else        component.batchNode = node;
+        }
+        return node;
+    }
+
+    private Bucket bucket(int depth, int type) {
+        // binary search for the bucket, or the spot to insert it
+        int low = 0;
+        int high = buckets.size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(buckets.get(mid), depth, type);
+            if      (cmp < 0) low = mid + 1;
+            else if (cmp > 0) high = mid - 1;
+            else return buckets.get(mid);
+        }
+        var bucket = new Bucket(depth, type);
+        buckets.insert(low, bucket);
+        if (low <= cursorBucket) {
+            cursorBucket++;
+        }
+        return bucket;
+    }
+
+    private static int compare(Bucket bucket, int depth, int type) {
+        if (bucket.depth != depth) return Integer.compare(bucket.depth, depth);
+        return Integer.compare(bucket.type, type);
+    }
+
+    // put the node after the last one in the bucket that was added before it,
+    // searching from the tail since newly added nodes belong there
+    private static void insert(Bucket bucket, Node node) {
+        var prev = bucket.tail;
+        while (prev != null && prev.seq > node.seq) {
+            prev = prev.prev;
+        }
+        var next = (prev != null) ? prev.next : bucket.head;
+        node.bucket = bucket;
+        node.prev = prev;
+        node.next = next;
+        if (prev != null) prev.next = node; else bucket.head = node;
+        if (next != null) next.prev = node; else bucket.tail = node;
+    }
+
+    private static void unlink(Node node) {
+        var bucket = node.bucket;
+        if (node.prev != null) node.prev.next = node.next; else bucket.head = node.next;
+        if (node.next != null) node.next.prev = node.prev; else bucket.tail = node.prev;
+        node.bucket = null;
+        node.prev = null;
+        node.next = null;
+    }
+
+}
@@ -1,146 +1,412 @@
 package zendo.games.grotto.ecs;
 
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
 import com.badlogic.gdx.utils.Pool;
-import com.badlogic.gdx.utils.Pools;
+import com.badlogic.gdx.utils.ReflectionPool;
+import zendo.games.grotto.components.Collisions;
 
-import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 @SuppressWarnings("unchecked")
 public class World {
 
     static final int max_component_types = 256;
 
+    /**
+     * sequential: every component type updates in turn on the main thread
+     * parallel: types with declared Access that don't conflict update at the same time on a ForkJoinPool,
+     *           with the same results as sequential as long as the declarations are accurate
+     */
+    public enum Mode { sequential, parallel }
+
+    // isolated types are split into chunks of about this many components, smaller batches aren't worth splitting
+    static final int chunk_size = 256;
+
+    // how far past a drawn component render(SpriteBatch) looks for others sharing its texture, which keeps the work
+    // for a depth linear in its size rather than growing with the square (or worse) of it for crowded depths
+    static final int texture_lookahead = 32;
+
+    // pools hold on to at most this many free instances of a type, unless set otherwise with poolSize()
+    static final int default_pool_size = 512;
+
+    // live entities and components are kept in dense arrays that are swap-removed from,
+    // the linked list through them (from head to tail) is what keeps them in the order they were added
     private final Pool<Entity> entityPool;
     private final Array<Entity> entitiesAlive;
+    private Entity entityHead;
+    private Entity entityTail;
 
     private final Pool<Component>[] componentPools;
     private final Array<Component>[] componentsAlive;
-    private final Array<Component> componentsVisible;
+    private final Component[] componentHeads;
+    private final Component[] componentTails;
+
+    // generational slots that EntityHandle and ComponentHandle resolve through
+    final Handles<Entity> entityHandles;
+    final Handles<Component> componentHandles;
+
+    private final Array<Query> queries;
+    private final RenderQueue batchQueue;
+    private final RenderQueue shapesQueue;
+
+    // types that override update(), the only ones that get walked by update(), rebuilt when the types change
+    private final IntArray updatingTypes;
+    private int updatingTypesVersion;
+    private final Stats stats;
+
+    // world space area visible through the batch's projection, worked out at the start of render(SpriteBatch)
+    private final Rectangle view;
+    // components of one depth waiting to be drawn grouped by texture, their textures and their bounds,
+    // the bounds rectangles are kept between renders and reused by index
+    private final Array<Component> sameDepth;
+    private final Array<Texture> sameDepthTextures;
+    private final Array<Rectangle> sameDepthBounds;
+    // indices of the components passed over while pulling forward ones that share a texture
+    private final IntArray sameDepthSkipped;
+    // the cache a run of components is being drawn from, with the batch ended until the run is over
+    private SpriteCache drawingCache;
+    private final Matrix4 inverseProjection;
+    private final Vector3 corner;
+
+    // structural changes recorded while deferring, applied by flush()
+    private boolean deferring;
+    private final Array<Component> pendingAdds;
+    private final Array<Component> pendingDestroys;
+    private final Array<Entity> pendingEntityDestroys;
+
+    // record adds and destroys that happen during update() and apply them all once it's done, rather than
+    // changing the lists while they're being walked; turn off to apply every change immediately like before
+    private boolean deferChanges;
+
+    // skip render(SpriteBatch) for components whose bounds() are outside the view
+    private boolean culling;
+
+    private final Collisions collisions;
+
+    // parallel update scheduling, stages run one after another and the types within each run at the same time
+    private final Mode mode;
+    private final Access[] declared;
+    private final Array<IntArray> stages;
+    private int scheduledTypes;
+    private final Array<UpdateTask> tasks;
+    private final StageTask stageTask;
+    private volatile boolean runningDeclared;
 
     public World() {
-        entityPool = Pools.get(Entity.class);
-        entitiesAlive = new Array<>();
+        this(Mode.sequential);
+    }
+
+    public World(Mode mode) {
+        entityPool = new ReflectionPool<>(Entity.class, 64, default_pool_size);
+        entitiesAlive = new Array<>(false, 64);
 
         componentPools = new Pool[max_component_types];
         componentsAlive = new Array[max_component_types];
-        componentsVisible = new Array<>();
+        componentHeads = new Component[max_component_types];
+        componentTails = new Component[max_component_types];
+
+        entityHandles = new Handles<>();
+        componentHandles = new Handles<>();
+
+        queries = new Array<>();
+        batchQueue = new RenderQueue(false);
+        shapesQueue = new RenderQueue(true);
+        updatingTypes = new IntArray();
+        updatingTypesVersion = -1;
+        stats = new Stats();
+        view = new Rectangle();
+        sameDepth = new Array<>(true, 64);
+        sameDepthTextures = new Array<>(true, 64);
+        sameDepthBounds = new Array<>(true, 64);
+        sameDepthSkipped = new IntArray(true, 64);
+        drawingCache = null;
+        inverseProjection = new Matrix4();
+        corner = new Vector3();
+
+        deferring = false;
+        deferChanges = true;
+        culling = true;
+        pendingAdds = new Array<>(false, 16);
+        pendingDestroys = new Array<>(false, 16);
+        pendingEntityDestroys = new Array<>(false, 16);
+
+        collisions = new Collisions();
+
+        this.mode = mode;
+        declared = new Access[max_component_types];
+        stages = new Array<>();
+        scheduledTypes = -1;
+        tasks = new Array<>();
+        stageTask = new StageTask();
+        runningDeclared = false;
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    public boolean deferChanges() {
+        return deferChanges;
+    }
+
+    public World deferChanges(boolean deferChanges) {
+        this.deferChanges = deferChanges;
+        return this;
+    }
+
+    public boolean culling() {
+        return culling;
+    }
+
+    public World culling(boolean culling) {
+        this.culling = culling;
+        return this;
+    }
+
+    /**
+     * Declare what a component type's update() touches, so it can run alongside other types in parallel mode
+     */
+    public void declare(Class<? extends Component> clazz, Access access) {
+        int type = Component.Types.id(clazz);
+        access.writes.set(type);
+        declared[type] = access;
+        scheduledTypes = -1;
+    }
+
+    public Collisions collisions() {
+        return collisions;
     }
 
     public Entity firstEntity() {
-        if (entitiesAlive.isEmpty()) {
-            return null;
-        }
-        return entitiesAlive.first();
+        return entityHead;
     }
 
     public Entity lastEntity() {
-        if (entitiesAlive.isEmpty()) {
-            return null;
-        }
-        return entitiesAlive.get(entitiesAlive.size - 1);
+        return entityTail;
     }
 
     public <T extends Component> T first(Class<T> clazz) {
         int type = Component.Types.id(clazz);
-        if (componentsAlive[type] == null || componentsAlive[type].isEmpty()) {
-            return null;
-        }
-        var component = componentsAlive[type].get(0);
-        return clazz.cast(component);
+        return clazz.cast(componentHeads[type]);
     }
 
     public <T extends Component> T last(Class<T> clazz) {
         int type = Component.Types.id(clazz);
-        if (componentsAlive[type] == null || componentsAlive[type].isEmpty()) {
-            return null;
+        return clazz.cast(componentTails[type]);
+    }
+
+    /**
+     * Get the cached list of entities that have each of the component types,
+     * repeated calls with the same types return the same Query without allocating
+     */
+    public Query query(Class<? extends Component> a) {
+        return query(Component.Types.id(a), -1, -1);
+    }
+
+    public Query query(Class<? extends Component> a, Class<? extends Component> b) {
+        return query(Component.Types.id(a), Component.Types.id(b), -1);
+    }
+
+    public Query query(Class<? extends Component> a, Class<? extends Component> b, Class<? extends Component> c) {
+        return query(Component.Types.id(a), Component.Types.id(b), Component.Types.id(c));
+    }
+
+    private Query query(int a, int b, int c) {
+        for (int i = 0; i < queries.size; i++) {
+            var query = queries.get(i);
+            if (query.is(a, b, c)) {
+                return query;
+            }
+        }
+
+        var types = (b == -1) ? new int[] { a }
+                  : (c == -1) ? new int[] { a, b }
+                  : new int[] { a, b, c };
+        var query = new Query(types);
+        for (var entity = entityHead; entity != null; entity = entity.next) {
+            query.refresh(entity);
         }
-        var components = componentsAlive[type];
-        var component = components.get(components.size - 1);
-        return clazz.cast(component);
+        queries.add(query);
+        return query;
     }
 
+    private void refreshQueries(Entity entity, int type) {
+        for (int i = 0; i < queries.size; i++) {
+            var query = queries.get(i);
+            if (query.required.get(type)) {
+                query.refresh(entity);
+            }
+        }
+    }
+
+    /**
+     * Add a component instance that was created by the caller, it goes back to the
+     * type's pool when it's destroyed and can be handed out again by add(entity, class)
+     */
     public <T extends Component> T add(Entity entity, T component, Class<T> clazz) {
-        if (entity == null) {
-            throw new GdxRuntimeException("Entity cannot be null");
+        checkStructuralChange();
+        checkEntity(entity);
+        if (component == null) {
+            throw new GdxRuntimeException("Component cannot be null");
         }
-        if (entity.world != this) {
-            throw new GdxRuntimeException("Entity must be part of this World");
+        int type = Component.Types.id(clazz);
+        pool(type, clazz);
+        return wire(entity, component, type);
+    }
+
+    /**
+     * Add a recycled component from the type's pool, which starts out in its reset state
+     * and is initialized in place by the caller, eg. entity.add(Timer.class).start(1f, onEnd)
+     */
+    public <T extends Component> T add(Entity entity, Class<T> clazz) {
+        checkStructuralChange();
+        checkEntity(entity);
+
+        int type = Component.Types.id(clazz);
+        T instance = (T) pool(type, clazz).obtain();
+        if (instance == null) {
+            throw new GdxRuntimeException("Component instance could not be instantiated");
         }
+        return wire(entity, instance, type);
+    }
 
-        // get the component type
+    /**
+     * Set the most free instances that the type's pool will hold on to, should be called before
+     * any components of the type are destroyed since it replaces the pool
+     */
+    public <T extends Component> void poolSize(Class<T> clazz, int max) {
         int type = Component.Types.id(clazz);
+        componentPools[type] = (Pool<Component>) new ReflectionPool<T>(clazz, Math.min(16, max), max);
+    }
+
+    /**
+     * Fill the type's pool so that the next count add(entity, class) calls don't have to allocate
+     */
+    public <T extends Component> void prewarm(Class<T> clazz, int count) {
+        var pool = pool(Component.Types.id(clazz), clazz);
+        pool.fill(count - pool.getFree());
+    }
+
+    /**
+     * Fill the entity pool so that the next count addEntity() calls don't have to allocate
+     */
+    public void prewarmEntities(int count) {
+        entityPool.fill(count - entityPool.getFree());
+    }
+
+    private <T extends Component> Pool<Component> pool(int type, Class<T> clazz) {
         if (componentPools[type] == null) {
-            componentPools[type] = (Pool<Component>) Pools.get(clazz);
+            componentPools[type] = (Pool<Component>) new ReflectionPool<T>(clazz, 16, default_pool_size);
         }
-        if (componentsAlive[type] == null) {
-            componentsAlive[type] = new Array<>();
+        return componentPools[type];
+    }
+
+    private void checkEntity(Entity entity) {
+        if (entity == null) {
+            throw new GdxRuntimeException("Entity cannot be null");
         }
-        Pool<Component> pool = componentPools[type];
-        Array<Component> alive = componentsAlive[type];
+        if (entity.world != this) {
+            throw new GdxRuntimeException("Entity must be part of this World");
+        }
+    }
 
-        // instantiate a new instance
-        T instance = (T) pool.obtain();
-        if (instance == null) {
-            throw new GdxRuntimeException("Component instance could not be instantiated");
+    private <T extends Component> T wire(Entity entity, T instance, int type) {
+        if (componentsAlive[type] == null) {
+            componentsAlive[type] = new Array<>(false, 16);
         }
 
         // initialize the new instance
-        instance = component;
         instance.type = type;
         instance.entity = entity;
-
-        // add it to the live components;
-        var last = alive.isEmpty() ? null : alive.get(alive.size - 1);
-        if (last != null) {
-            instance.next = last.next;
-            instance.prev = last;
-            last.next = instance;
-        }
-        alive.add(instance);
+        componentHandles.claim(instance);
+        Component.Types.include(instance);
 
         // add it to the entity
         entity.components.add(instance);
+        entity.attach(instance);
+
+        // add it to the live components, it won't be updated or rendered until then
+        if (deferring) {
+            pendingAdds.add(instance);
+        } else {
+            link(instance);
+        }
+
+        // notify now that it's wired up to its entity
+        instance.added();
 
         return instance;
     }
 
     public Entity addEntity() {
+        checkStructuralChange();
+
         // create entity instance
         var instance = entityPool.obtain();
 
         // add to list
-        var last = entitiesAlive.isEmpty() ? null : entitiesAlive.get(entitiesAlive.size - 1);
+        var last = entityTail;
         if (last != null) {
-            instance.next = last.next;
             instance.prev = last;
             last.next = instance;
+        } else {
+            entityHead = instance;
         }
+        entityTail = instance;
+        instance.index = entitiesAlive.size;
         entitiesAlive.add(instance);
 
         // assign
         instance.world = this;
+        entityHandles.claim(instance);
 
         return instance;
     }
 
     public void destroyEntity(Entity entity) {
+        checkStructuralChange();
         if (entity != null && entity.world == this) {
+            if (deferring) {
+                if (!entity.destroying) {
+                    entity.destroying = true;
+                    entityHandles.release(entity);
+                    entity.active = false;
+                    entity.visible = false;
+                    for (int i = entity.components.size() - 1; i >= 0; i--) {
+                        retire(entity.components.get(i));
+                    }
+                    pendingEntityDestroys.add(entity);
+                }
+                return;
+            }
+
+            // handles to it stop resolving from here on
+            entityHandles.release(entity);
+
             // destroy components
             for (int i = entity.components.size() - 1; i >= 0; i--) {
-                destroy(entity.components.get(i));
+                destroyNow(entity.components.get(i));
             }
 
             // remove ourselves from the list
             var next = entity.next;
             var prev = entity.prev;
-            if (prev != null) prev.next = next;
-            if (next != null) next.prev = prev;
-            entitiesAlive.removeValue(entity, true);
+            if (prev != null) prev.next = next; else entityHead = next;
+            if (next != null) next.prev = prev; else entityTail = prev;
+            removeIndex(entitiesAlive, entity.index);
 
             // release the instance back to the pool
             entityPool.free(entity);
@@ -150,30 +416,114 @@ public class World {
     }
 
     public void destroy(Component component) {
+        checkStructuralChange();
         if (component != null && component.entity != null && component.entity.world == this) {
-            int type = component.type;
+            if (deferring) {
+                if (!component.destroying) {
+                    retire(component);
+                    pendingDestroys.add(component);
+                }
+                return;
+            }
+            destroyNow(component);
+        }
+    }
 
-            // mark destroyed
-            component.destroyed();
+    /**
+     * Apply every add and destroy recorded since the last flush, called at the end of update()
+     */
+    public void flush() {
+        for (int i = 0; i < pendingAdds.size; i++) {
+            link(pendingAdds.get(i));
+        }
+        pendingAdds.clear();
 
-            // remove from entity
-            var list = component.entity.components;
-            for (int i = list.size() - 1; i >= 0; i--) {
-                if (list.get(i) == component) {
-                    list.remove(i);
-                    break;
-                }
+        for (int i = 0; i < pendingDestroys.size; i++) {
+            var component = pendingDestroys.get(i);
+            // it might have already gone along with its entity
+            if (component.entity != null) {
+                destroyNow(component);
             }
+        }
+        pendingDestroys.clear();
 
-            // remove from list
-            var next = component.next;
-            var prev = component.prev;
-            if (prev != null) prev.next = next;
-            if (next != null) next.prev = prev;
-            componentsAlive[type].removeValue(component, true);
+        for (int i = 0; i < pendingEntityDestroys.size; i++) {
+            destroyEntity(pendingEntityDestroys.get(i));
+        }
+        pendingEntityDestroys.clear();
+    }
 
-            // release the instance back to the pool
-            componentPools[type].free(component);
+    private void link(Component component) {
+        int type = component.type;
+        var last = componentTails[type];
+        if (last != null) {
+            component.prev = last;
+            last.next = component;
+        } else {
+            componentHeads[type] = component;
+        }
+        componentTails[type] = component;
+        component.index = componentsAlive[type].size;
+        componentsAlive[type].add(component);
+        refreshQueries(component.entity, type);
+        batchQueue.add(component);
+        shapesQueue.add(component);
+    }
+
+    /**
+     * Take a component out of play until its destroy is applied: it stops updating and rendering,
+     * and destroyed() is run right away so that it lets go of anything outside the World (eg. Collisions)
+     */
+    private void retire(Component component) {
+        if (component.destroying) return;
+        component.destroying = true;
+        componentHandles.release(component);
+        batchQueue.remove(component);
+        shapesQueue.remove(component);
+        component.active = false;
+        component.visible = false;
+        component.destroyed();
+    }
+
+    private void destroyNow(Component component) {
+        int type = component.type;
+
+        // mark destroyed, unless it was already retired
+        if (!component.destroying) {
+            component.destroying = true;
+            componentHandles.release(component);
+            component.destroyed();
+        }
+
+        // remove from entity
+        var list = component.entity.components;
+        for (int i = list.size() - 1; i >= 0; i--) {
+            if (list.get(i) == component) {
+                list.remove(i);
+                break;
+            }
+        }
+        component.entity.detach(component);
+        refreshQueries(component.entity, type);
+        batchQueue.remove(component);
+        shapesQueue.remove(component);
+
+        // remove from list
+        var next = component.next;
+        var prev = component.prev;
+        if (prev != null) prev.next = next; else componentHeads[type] = next;
+        if (next != null) next.prev = prev; else componentTails[type] = prev;
+        removeIndex(componentsAlive[type], component.index);
+
+        // release the instance back to the pool
+        componentPools[type].free(component);
+    }
+
+    // swap the last node into the removed node's place, rather than shifting everything after it down
+    private static <T extends ListNode<T>> void removeIndex(Array<T> alive, int index) {
+        alive.removeIndex(index);
+        if (index < alive.size) {
+            alive.get(index).index = index;
         }
     }
 
@@ -187,83 +537,388 @@ public class World {
     }
 
     public void update(float dt) {
-        for (int i = 0; i < Component.Types.count(); i++) {
-            if (componentsAlive[i] == null || componentsAlive[i].isEmpty()) {
+        deferring = deferChanges;
+        try {
+            // re-bucket colliders that were moved outside of a Mover since last frame
+            collisions.update();
+
+            // find overlaps once for every collider that wants contacts, rather than each component checking on its own
+            collisions.updateContacts();
+
+            if (mode == Mode.parallel) {
+                updateStages(dt);
+            } else {
+                if (updatingTypesVersion != Component.Types.version()) {
+                    updatingTypesVersion = Component.Types.version();
+                    updatingTypes.clear();
+                    for (int type = 0; type < Component.Types.count(); type++) {
+                        if (Component.Types.updates(type)) {
+                            updatingTypes.add(type);
+                        }
+                    }
+                }
+                for (int i = 0; i < updatingTypes.size; i++) {
+                    updateType(updatingTypes.get(i), dt);
+                }
+            }
+        } finally {
+            deferring = false;
+        }
+
+        // sync point, everything added or destroyed during the update takes effect here
+        flush();
+    }
+
+    private void updateType(int type, float dt) {
+        var component = componentHeads[type];
+        while (component != null) {
+            // the lists only change mid-iteration when changes aren't being deferred
+            var next = component.next();
+            if (component.active && component.entity.active) {
+                component.update(dt);
+            }
+            component = next;
+        }
+    }
+
+    private void updateStages(float dt) {
+        if (scheduledTypes != Component.Types.version()) {
+            schedule();
+        }
+
+        for (int i = 0; i < stages.size; i++) {
+            var stage = stages.get(i);
+
+            // undeclared types are always alone in their stage
+            if (stage.size == 1 && declared[stage.first()] == null) {
+                updateType(stage.first(), dt);
                 continue;
             }
 
-            var component = componentsAlive[i].first();
-            while (component != null) {
-                var next = component.next();
+            // split the stage into tasks, one per type or per chunk for big isolated types
+            var count = 0;
+            for (int j = 0; j < stage.size; j++) {
+                var type = stage.get(j);
+                var alive = componentsAlive[type];
+                if (alive == null || alive.isEmpty()) continue;
+
+                if (declared[type].isolated && alive.size >= chunk_size * 2) {
+                    for (int start = 0; start < alive.size; start += chunk_size) {
+                        task(count++).set(type, start, Math.min(start + chunk_size, alive.size), dt);
+                    }
+                } else {
+                    // the whole list in order, since instances of a type that isn't isolated might affect each other
+                    task(count++).set(type, -1, -1, dt);
+                }
+            }
+            if (count == 0) continue;
+
+            runningDeclared = true;
+            collisions.lock(true);
+            try {
+                if (count == 1) {
+                    tasks.first().compute();
+                } else {
+                    stageTask.set(count);
+                    ForkJoinPool.commonPool().invoke(stageTask);
+                }
+            } finally {
+                runningDeclared = false;
+                collisions.lock(false);
+            }
+        }
+    }
+
+    /**
+     * Group component types into stages, in type order: each type goes in the stage after the last one
+     * that holds an earlier type it conflicts with, so conflicting types still update in the same order
+     * they would sequentially. Undeclared types conflict with everything.
+     */
+    private void schedule() {
+        var count = Component.Types.count();
+        var stageOf = new int[count];
+        for (var stage : stages) {
+            stage.clear();
+        }
+
+        var last = -1;
+        for (int type = 0; type < count; type++) {
+            // nothing to run for types that don't override update()
+            if (!Component.Types.updates(type)) continue;
+
+            var stage = 0;
+            for (int earlier = 0; earlier < type; earlier++) {
+                if (!Component.Types.updates(earlier)) continue;
+                if (conflicts(type, earlier)) {
+                    stage = Math.max(stage, stageOf[earlier] + 1);
+                }
+            }
+            stageOf[type] = stage;
+            last = Math.max(last, stage);
+            while (stages.size <= stage) {
+                stages.add(new IntArray());
+            }
+            stages.get(stage).add(type);
+        }
+        stages.truncate(last + 1);
+        scheduledTypes = Component.Types.version();
+    }
+
+    private boolean conflicts(int type, int other) {
+        var access = declared[type];
+        var otherAccess = declared[other];
+        return access == null || otherAccess == null || access.conflicts(otherAccess);
+    }
+
+    private UpdateTask task(int index) {
+        while (tasks.size <= index) {
+            tasks.add(new UpdateTask());
+        }
+        var task = tasks.get(index);
+        task.reinitialize();
+        return task;
+    }
+
+    private void checkStructuralChange() {
+        if (runningDeclared) {
+            throw new GdxRuntimeException("Components with declared Access can't add or destroy anything during update()");
+        }
+    }
+
+    /**
+     * Updates a range of one type's live components, or the whole list in order if the range is -1
+     */
+    @SuppressWarnings("serial")
+    private class UpdateTask extends RecursiveAction {
+        int type;
+        int start;
+        int end;
+        float dt;
+
+        void set(int type, int start, int end, float dt) {
+            this.type = type;
+            this.start = start;
+            this.end = end;
+            this.dt = dt;
+        }
+
+        @Override
+        protected void compute() {
+            if (start == -1) {
+                updateType(type, dt);
+                return;
+            }
+            var alive = componentsAlive[type];
+            for (int i = start; i < end; i++) {
+                var component = alive.get(i);
                 if (component.active && component.entity.active) {
                     component.update(dt);
                 }
-                component = next;
             }
         }
     }
 
-    public void render(SpriteBatch batch) {
-        // Notes:
-        // In general this isn't a great way to render objects
-        // Every frame it has to rebuild the list and sort it
-        // A more ideal way would be to cache the visible list
-        // and insert / remove objects as they update or change
-        // their depth
-
-        // assemble list
-        for (int i = 0; i < Component.Types.count(); i++) {
-            if (componentsAlive[i] == null || componentsAlive[i].isEmpty()) {
-                continue;
+    /**
+     * Runs the first few update tasks at the same time and waits for all of them
+     */
+    @SuppressWarnings("serial")
+    private class StageTask extends RecursiveAction {
+        int count;
+
+        void set(int count) {
+            this.count = count;
+            reinitialize();
+        }
+
+        @Override
+        protected void compute() {
+            for (int i = 1; i < count; i++) {
+                tasks.get(i).fork();
+            }
+            tasks.get(0).compute();
+            for (int i = 1; i < count; i++) {
+                tasks.get(i).join();
             }
+        }
+    }
 
-            var component = componentsAlive[i].first();
-            while (component != null) {
+    public void render(SpriteBatch batch) {
+        // the queue is kept sorted by depth as components come and go, so this is just a walk
+        updateView(batch.getProjectionMatrix());
+        stats.batchRenders = 0;
+        stats.culled = 0;
+        batchQueue.begin();
+        var component = batchQueue.next();
+        while (component != null) {
+            // gather the run of components at this depth
+            var depth = component.depth;
+            while (component != null && component.depth == depth) {
                 if (component.visible && component.entity.visible) {
-                    componentsVisible.add(component);
+                    var index = sameDepth.size;
+                    if (index == sameDepthBounds.size) {
+                        sameDepthBounds.add(new Rectangle());
+                    }
+                    var bounds = sameDepthBounds.get(index);
+                    var bounded = component.bounds(bounds);
+                    if (culling && bounded && !view.overlaps(bounds)) {
+                        stats.culled++;
+                    } else {
+                        sameDepth.add(component);
+                        // without bounds there's no telling what it would be drawn over, so it isn't grouped
+                        sameDepthTextures.add(bounded ? component.texture() : null);
+                    }
                 }
-                component = component.next();
+                component = batchQueue.next();
             }
+            renderByTexture(batch);
         }
+        endCache(batch);
+    }
 
-        // sort by depth
-        componentsVisible.sort(Comparator.comparingInt(Component::depth));
+    /**
+     * Draw the gathered components of one depth in the order they were added, except that a component sharing
+     * the texture just drawn is pulled forward to be drawn with it when it doesn't overlap anything it skips over,
+     * since a texture change between them costs a batch flush. Components with no texture or no bounds are never
+     * moved past, so they (and whatever overlaps) keep their place relative to everything else. Only the next
+     * texture_lookahead components are looked at, anything sharing the texture further on waits for its turn.
+     */
+    private void renderByTexture(SpriteBatch batch) {
+        var count = sameDepth.size;
+        for (int i = 0; i < count; i++) {
+            var first = sameDepth.get(i);
+            if (first == null) continue;
+
+            renderBatch(first, batch);
+            stats.batchRenders++;
+
+            var texture = sameDepthTextures.get(i);
+            if (texture == null) continue;
+            sameDepthSkipped.clear();
+            var end = Math.min(count, i + 1 + texture_lookahead);
+            for (int j = i + 1; j < end; j++) {
+                var next = sameDepth.get(j);
+                if (next == null) continue;
+
+                var nextTexture = sameDepthTextures.get(j);
+                if (nextTexture == null) break;
+                if (nextTexture == texture && !overlapsSkipped(j)) {
+                    renderBatch(next, batch);
+                    stats.batchRenders++;
+                    sameDepth.set(j, null);
+                } else {
+                    sameDepthSkipped.add(j);
+                }
+            }
+        }
+        sameDepth.clear();
+        sameDepthTextures.clear();
+    }
 
-        // render them
-        for (var component : componentsVisible) {
+    // whether the gathered component at index overlaps any of the ones it would be drawn ahead of
+    private boolean overlapsSkipped(int index) {
+        var bounds = sameDepthBounds.get(index);
+        for (int i = 0; i < sameDepthSkipped.size; i++) {
+            if (sameDepthBounds.get(sameDepthSkipped.get(i)).overlaps(bounds)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // components drawing from a cache have the batch ended around them, so runs of them only flush it once
+    private void renderBatch(Component component, SpriteBatch batch) {
+        var cache = component.cache();
+        if (cache == null) {
+            endCache(batch);
             component.render(batch);
+            return;
+        }
+        if (cache != drawingCache) {
+            if (drawingCache != null) {
+                drawingCache.end();
+            } else {
+                batch.end();
+            }
+            Gdx.gl.glEnable(GL20.GL_BLEND);
+            Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+            cache.setProjectionMatrix(batch.getProjectionMatrix());
+            cache.setTransformMatrix(batch.getTransformMatrix());
+            cache.begin();
+            drawingCache = cache;
         }
+        component.render(cache);
+    }
 
-        // clear the list for next time around
-        componentsVisible.clear();
+    private void endCache(SpriteBatch batch) {
+        if (drawingCache == null) return;
+        drawingCache.end();
+        drawingCache = null;
+        batch.begin();
     }
 
-    public void render(ShapeRenderer shapes) {
-        // assemble list
-        for (int i = 0; i < Component.Types.count(); i++) {
-            if (componentsAlive[i] == null || componentsAlive[i].isEmpty()) {
-                continue;
-            }
+    /**
+     * The world space area that the last render(SpriteBatch) could draw into
+     */
+    public Rectangle view() {
+        return view;
+    }
 
-            var component = componentsAlive[i].first();
-            while (component != null) {
-                if (component.visible && component.entity.visible) {
-                    componentsVisible.add(component);
-                }
-                component = component.next();
+    // take the corners of clip space back into the world
+    private void updateView(Matrix4 projection) {
+        inverseProjection.set(projection).inv();
+        corner.set(-1, -1, 0).prj(inverseProjection);
+        var x0 = corner.x;
+        var y0 = corner.y;
+        corner.set(1, 1, 0).prj(inverseProjection);
+        var x1 = corner.x;
+        var y1 = corner.y;
+        view.set(Math.min(x0, x1), Math.min(y0, y1), Math.abs(x1 - x0), Math.abs(y1 - y0));
+    }
+
+    public void render(ShapeRenderer shapes) {
+        stats.shapeRenders = 0;
+        shapesQueue.begin();
+        for (var component = shapesQueue.next(); component != null; component = shapesQueue.next()) {
+            if (component.visible && component.entity.visible) {
+                component.render(shapes);
+                stats.shapeRenders++;
             }
         }
+    }
 
-        // sort by depth
-        componentsVisible.sort(Comparator.comparingInt(Component::depth));
-
-        // render them
-        for (var component : componentsVisible) {
-            component.render(shapes);
+    /**
+     * Counts for a debug overlay, the render counts are from the last render() of each kind
+     * and the rest are tallied from the live components when stats() is called
+     */
+    public Stats stats() {
+        stats.entities = entitiesAlive.size;
+        stats.components = 0;
+        stats.updateSkipped = 0;
+        stats.batchSkipped = 0;
+        stats.shapeSkipped = 0;
+        for (int type = 0; type < Component.Types.count(); type++) {
+            var alive = componentsAlive[type];
+            if (alive == null) continue;
+            stats.components += alive.size;
+            if (!Component.Types.updates(type))       stats.updateSkipped += alive.size;
+            if (!Component.Types.rendersBatch(type))  stats.batchSkipped  += alive.size;
+            if (!Component.Types.rendersShapes(type)) stats.shapeSkipped  += alive.size;
         }
+        return stats;
+    }
 
-        // clear the list for next time around
-        componentsVisible.clear();
+    public static class Stats {
+        public int entities;
+        public int components;
+        // calls that aren't made because the component's type doesn't override the method
+        public int updateSkipped;
+        public int batchSkipped;
+        public int shapeSkipped;
+        // render(SpriteBatch) calls skipped because the component's bounds were off screen
+        public int culled;
+        // calls that were made
+        public int batchRenders;
+        public int shapeRenders;
     }
 
 }
@@ -23,14 +23,15 @@ public class CreatureFactory {
             entity.position.set(position);
             entity.add(new Player(), Player.class);
 
-            var anim = entity.add(new Animator("hero", "idle"), Animator.class);
+            var anim = entity.add(Animator.class).sprite("hero").play("idle");
             anim.depth = 1;
 
             var bounds = RectI.at(-2, 0, 6, 12);
-            var collider = entity.add(Collider.makeRect(bounds), Collider.class);
-            collider.mask = Collider.Mask.player;
+            var collider = entity.add(Collider.class).rect(bounds);
+            collider.mask(Collider.Mask.player);
+            collider.contactMask(Collider.Mask.enemy);
 
-            var mover = entity.add(new Mover(), Mover.class);
+            var mover = entity.add(Mover.class);
             mover.collider = collider;
         }
         return entity;
@@ -40,16 +41,16 @@ public class CreatureFactory {
         var entity = world.addEntity();
         {
             entity.position.set(position);
-            entity.add(new Enemy("thwomp"), Enemy.class);
+            entity.add(Enemy.class).tag = "thwomp";
 
-            var anim = entity.add(new Animator("thwomp", "idle"), Animator.class);
+            var anim = entity.add(Animator.class).sprite("thwomp").play("idle");
             anim.depth = 10;
 
             var bounds = RectI.at(-12, 0, 24, 32);
-            var collider = entity.add(Collider.makeRect(bounds), Collider.class);
-            collider.mask = Collider.Mask.enemy;
+            var collider = entity.add(Collider.class).rect(bounds);
+            collider.mask(Collider.Mask.enemy);
 
-            var mover = entity.add(new Mover(), Mover.class);
+            var mover = entity.add(Mover.class);
             mover.collider = collider;
 
             entity.add(new ThwompBehavior(position.copy()), ThwompBehavior.class);
@@ -63,14 +64,14 @@ public class CreatureFactory {
             var pathStart = path.evaluate(0);
             var position = Point.at((int) pathStart.x, (int) pathStart.y);
             entity.position.set(position);
-            entity.add(new Enemy("slider"), Enemy.class);
+            entity.add(Enemy.class).tag = "slider";
 
-            var anim = entity.add(new Animator("shot", "idle"), Animator.class);
+            var anim = entity.add(Animator.class).sprite("shot").play("idle");
             anim.depth = 10;
 
             var bounds = RectI.at(-3, -3, 5, 5);
-            var collider = entity.add(Collider.makeRect(bounds), Collider.class);
-            collider.mask = Collider.Mask.enemy;
+            var collider = entity.add(Collider.class).rect(bounds);
+            collider.mask(Collider.Mask.enemy);
 
             entity.add(new Component() {
                 float speed = 0.2f;
@@ -80,6 +81,7 @@ public class CreatureFactory {
                 public void update(float dt) {
                     var pos = path.evaluate(t);
                     entity.position.set((int) pos.x, (int) pos.y);
+                    collider.reindex();
 
                     t += speed * dir * dt;
                     if (t > 1) {
@@ -102,24 +104,25 @@ public class CreatureFactory {
         var entity = world.addEntity();
         {
             entity.position.set(position);
-            entity.add(new Enemy("eye"), Enemy.class);
+            entity.add(Enemy.class).tag = "eye";
 
-            var anim = entity.add(new Animator("eye", "idle"), Animator.class);
+            var anim = entity.add(Animator.class).sprite("eye").play("idle");
             anim.mode = Animator.LoopMode.none;
 
             // collider bounds are updated in EyeBehavior component
             var bounds = RectI.at(0, 0, 1, 1);
-            var collider = entity.add(Collider.makeRect(bounds), Collider.class);
-            collider.mask = Collider.Mask.enemy;
+            var collider = entity.add(Collider.class).rect(bounds);
+            collider.mask(Collider.Mask.enemy);
 
             // mostly so gravity gets applied
-            var mover = entity.add(new Mover(), Mover.class);
+            var mover = entity.add(Mover.class);
             mover.collider = collider;
             mover.gravity = -300;
 
-            var hurtable = entity.add(new Hurtable(), Hurtable.class);
+            var hurtable = entity.add(Hurtable.class);
             hurtable.collider = collider;
             hurtable.hurtBy = Collider.Mask.player_attack;
+            collider.contactMask(Collider.Mask.player_attack);
             hurtable.onHurt = (self) -> {
                 Time.pause_for(0.2f);
                 EffectFactory.spriteAnimOneShot(world, position, "vase", "break");
@@ -136,15 +139,15 @@ public class CreatureFactory {
         var entity = world.addEntity();
         {
             entity.position.set(position);
-            entity.add(new Enemy("slime"), Enemy.class);
+            entity.add(Enemy.class).tag = "slime";
 
-            var anim = entity.add(new Animator("slime", "idle"), Animator.class);
+            var anim = entity.add(Animator.class).sprite("slime").play("idle");
 
             var bounds = RectI.at(-6, 0, 13, 12);
-            var collider = entity.add(Collider.makeRect(bounds), Collider.class);
-            collider.mask = Collider.Mask.enemy;
+            var collider = entity.add(Collider.class).rect(bounds);
+            collider.mask(Collider.Mask.enemy);
 
-            var mover = entity.add(new Mover(), Mover.class);
+            var mover = entity.add(Mover.class);
             mover.collider = collider;
             mover.gravity = -300;
             mover.friction = 400;
@@ -153,12 +156,18 @@ public class CreatureFactory {
                 self.stopY();
             };
 
-            Timer moveTimer = entity.add(new Timer(2f, (self) -> {
+            // a hit of its own rather than one shared between every creature
+            var sight = new Collisions.RaycastHit();
+            Timer moveTimer = entity.add(Timer.class).start(2f, (self) -> {
                 if (!mover.onGround()) {
                     self.start(0.05f);
                 } else {
                     var player = self.world().first(Player.class);
-                    if (player != null) {
+                    if (player != null && !canSee(self.entity(), player, sight)) {
+                        // wait around until the player comes into view
+                        anim.play("idle");
+                        self.start(0.5f);
+                    } else if (player != null) {
                         anim.play("walk");
                         self.start(anim.duration());
 
@@ -170,10 +179,11 @@ public class CreatureFactory {
                         mover.speed.x = dir * 50;
                     }
                 }
-            }), Timer.class);
+            });
 
-            var hurtable = entity.add(new Hurtable(), Hurtable.class);
+            var hurtable = entity.add(Hurtable.class);
             hurtable.hurtBy = Collider.Mask.player_attack;
+            collider.contactMask(Collider.Mask.player_attack);
             hurtable.collider = collider;
             hurtable.onHurt = new Hurtable.OnHurt() {
                 int health = 3;
@@ -186,7 +196,10 @@ public class CreatureFactory {
                         if (health > 0) {
                             anim.mode = Animator.LoopMode.none;
                             anim.play("hurt");
-                            entity.add(new Timer(anim.duration(), (timer) -> anim.mode = Animator.LoopMode.loop), Timer.class);
+                            entity.add(Timer.class).start(anim.duration(), (timer) -> {
+                                anim.mode = Animator.LoopMode.loop;
+                                timer.destroy();
+                            });
 
                             var sign = Calc.sign(self.entity().position.x - player.entity().position.x);
                             mover.speed.x = sign * 120;
@@ -196,11 +209,11 @@ public class CreatureFactory {
                             anim.play("hurt");
 
                             // play death animation and self destruct after last hurt animation finishes
-                            entity.add(new Timer(anim.duration(), (timer) -> {
+                            entity.add(Timer.class).start(anim.duration(), (timer) -> {
                                 EffectFactory.spriteAnimOneShot(world, entity.position, "slime", "death")
                                         .get(Animator.class).scale.set(anim.scale);
                                 entity.destroy();
-                            }), Timer.class);
+                            });
                         }
                     }
                 }
@@ -213,15 +226,15 @@ public class CreatureFactory {
         var entity = world.addEntity();
         {
             entity.position.set(position);
-            entity.add(new Enemy("goblin"), Enemy.class);
+            entity.add(Enemy.class).tag = "goblin";
 
-            var anim = entity.add(new Animator("goblin", "idle"), Animator.class);
+            var anim = entity.add(Animator.class).sprite("goblin").play("idle");
 
             var bounds = RectI.at(-4, 0, 12, 12);
-            var collider = entity.add(Collider.makeRect(bounds), Collider.class);
-            collider.mask = Collider.Mask.enemy;
+            var collider = entity.add(Collider.class).rect(bounds);
+            collider.mask(Collider.Mask.enemy);
 
-            var mover = entity.add(new Mover(), Mover.class);
+            var mover = entity.add(Mover.class);
             mover.collider = collider;
             mover.gravity = -300;
             mover.friction = 300;
@@ -230,12 +243,17 @@ public class CreatureFactory {
                 self.stopY();
             };
 
-            var moveTimer = entity.add(new Timer(2f, (self) -> {
+            var sight = new Collisions.RaycastHit();
+            var moveTimer = entity.add(Timer.class).start(2f, (self) -> {
                 if (!mover.onGround()) {
                     self.start(0.05f);
                 } else {
                     var player = self.world().first(Player.class);
-                    if (player != null) {
+                    if (player != null && !canSee(self.entity(), player, sight)) {
+                        // wait around until the player comes into view
+                        anim.play("idle");
+                        self.start(0.5f);
+                    } else if (player != null) {
                         // get distance to player
                         var dist = player.entity().position.x - self.entity().position.x;
 
@@ -257,10 +275,11 @@ public class CreatureFactory {
                         }
                     }
                 }
-            }), Timer.class);
+            });
 
-            var hurtable = entity.add(new Hurtable(), Hurtable.class);
+            var hurtable = entity.add(Hurtable.class);
             hurtable.hurtBy = Collider.Mask.player_attack;
+            collider.contactMask(Collider.Mask.player_attack);
             hurtable.collider = collider;
             hurtable.onHurt = new Hurtable.OnHurt() {
                 int health = 5;
@@ -273,7 +292,10 @@ public class CreatureFactory {
                         if (player != null) {
                             anim.mode = Animator.LoopMode.none;
                             anim.play("hurt");
-                            entity.add(new Timer(anim.duration(), (timer) -> anim.mode = Animator.LoopMode.loop), Timer.class);
+                            entity.add(Timer.class).start(anim.duration(), (timer) -> {
+                                anim.mode = Animator.LoopMode.loop;
+                                timer.destroy();
+                            });
 
                             var sign = Calc.sign(self.entity().position.x - player.entity().position.x);
                             mover.speed.x = sign * 150;
@@ -284,11 +306,11 @@ public class CreatureFactory {
                         anim.play("hurt");
 
                         // play death animation and self destruct after last hurt animation finishes
-                        entity.add(new Timer(anim.duration(), (timer) -> {
+                        entity.add(Timer.class).start(anim.duration(), (timer) -> {
                             EffectFactory.spriteAnimOneShot(world, entity.position, "goblin", "death")
                                     .get(Animator.class).scale.set(anim.scale);
                             entity.destroy();
-                        }), Timer.class);
+                        });
                     }
                 }
             };
@@ -300,25 +322,26 @@ public class CreatureFactory {
         var entity = world.addEntity();
         {
             entity.position.set(position);
-            entity.add(new Enemy("shroom"), Enemy.class);
+            entity.add(Enemy.class).tag = "shroom";
 
             // get a ref to the room we're in to check whether we're about to go out of bounds
             var worldMap = world.first(WorldMapContainer.class).get();
             var currentRoom = worldMap.room(entity.position);
             var roomBounds = worldMap.getRoomBounds(currentRoom);
 
-            var anim = entity.add(new Animator("shroom", "idle"), Animator.class);
+            var anim = entity.add(Animator.class).sprite("shroom").play("idle");
 
             var bounds = RectI.at(-6, 0, 12, 12);
-            var collider = entity.add(Collider.makeRect(bounds), Collider.class);
-            collider.mask = Collider.Mask.enemy;
+            var collider = entity.add(Collider.class).rect(bounds);
+            collider.mask(Collider.Mask.enemy);
 
-            var mover = entity.add(new Mover(), Mover.class);
+            var mover = entity.add(Mover.class);
             mover.gravity = -300;
             mover.collider = collider;
 
-            var hurtable = entity.add(new Hurtable(), Hurtable.class);
+            var hurtable = entity.add(Hurtable.class);
             hurtable.hurtBy = Collider.Mask.player_attack;
+            collider.contactMask(Collider.Mask.player_attack);
             hurtable.collider = collider;
             // handle a player stomp
             hurtable.hurtCheck = (self) -> {
@@ -326,8 +349,7 @@ public class CreatureFactory {
                 if (player != null) {
                     var playerMover = player.get(Mover.class);
                     if (playerMover.speed.y < 0) {
-                        var offset = Point.pool.obtain().set(0, -1);
-                        var stomped = self.collider.check(Collider.Mask.player, offset);
+                        var stomped = self.collider.check(Collider.Mask.player, 0, -1);
                         if (stomped) {
                             // stop the shroom
                             mover.stopX();
@@ -337,21 +359,21 @@ public class CreatureFactory {
                             // play the crush animation
                             anim.mode = Animator.LoopMode.none;
                             anim.play("crush");
-                            entity.add(new Timer(anim.duration(), (timer) -> {
+                            entity.add(Timer.class).start(anim.duration(), (timer) -> {
                                 anim.mode = Animator.LoopMode.loop;
                                 mover.active = true;
-                            }), Timer.class);
+                            });
 
                             // mover player up a bit so they don't get hurt
                             player.entity().position.y += 5;
+                            playerMover.collider.reindex();
                             // bounce the player up as if they jumped
                             playerMover.speed.y = 155;
                         }
-                        Point.pool.free(offset);
                         return stomped;
                     }
                 }
-                return self.collider.check(self.hurtBy);
+                return self.collider.checkContact(self.hurtBy);
             };
             // handle a hurt
             hurtable.onHurt = new Hurtable.OnHurt() {
@@ -376,11 +398,11 @@ public class CreatureFactory {
 //                            anim.play("hurt");
 
                             // play death animation and self destruct after last hurt animation finishes
-                            entity.add(new Timer(anim.duration(), (timer) -> {
+                            entity.add(Timer.class).start(anim.duration(), (timer) -> {
                                 EffectFactory.spriteAnimOneShot(world, entity.position, "shroom", "death")
                                         .get(Animator.class).scale.set(anim.scale);
                                 entity.destroy();
-                            }), Timer.class);
+                            });
                         }
                     }
                 }
@@ -397,8 +419,6 @@ public class CreatureFactory {
 
                     // check whether to turn around
                     var feelerDist = 5;
-                    var fallOffset = Point.pool.obtain().set(feelerDist * dir, -1);
-                    var hitOffset = Point.pool.obtain().set(dir, 0);
                     {
                         // check the room we're in to see if we're about to go oob
                         // TODO: there should probably be a convenience method for this
@@ -412,8 +432,8 @@ public class CreatureFactory {
                         var willGoOutOfBounds = !roomBounds.contains(colliderRect);
                         RectI.pool.free(colliderRect);
 
-                        var willFallOff = !collider.check(Collider.Mask.solid, fallOffset);
-                        var willHitWall = collider.check(Collider.Mask.solid, hitOffset);
+                        var willFallOff = !collider.check(Collider.Mask.solid, feelerDist * dir, -1);
+                        var willHitWall = collider.check(Collider.Mask.solid, dir, 0);
                         if (willFallOff || willHitWall || willGoOutOfBounds) {
                             // stop moving
                             mover.stopX();
@@ -421,8 +441,6 @@ public class CreatureFactory {
                             dir *= -1;
                         }
                     }
-                    Point.pool.free(fallOffset);
-                    Point.pool.free(hitOffset);
 
                     // set facing direction
                     anim.scale.set(dir, 1);
@@ -438,4 +456,11 @@ public class CreatureFactory {
         return entity;
     }
 
+    // can the creature see the player from about eye height, without any solid ground in between
+    private static boolean canSee(Entity entity, Player player, Collisions.RaycastHit sight) {
+        var from = entity.position;
+        var to = player.entity().position;
+        return entity.world.collisions().lineOfSight(from.x, from.y + 6, to.x, to.y + 6, Collider.Mask.solid, sight);
+    }
+
 }
@@ -4,7 +4,6 @@ import zendo.games.grotto.components.*;
 import zendo.games.grotto.ecs.Entity;
 import zendo.games.grotto.ecs.World;
 import zendo.games.grotto.utils.Point;
-import zendo.games.grotto.utils.RectI;
 
 public class EffectFactory {
 
@@ -13,16 +12,15 @@ public class EffectFactory {
         {
             entity.position.set(position);
 
-            entity.add(new Item(), Item.class);
+            entity.add(Item.class);
 
-            var anim = entity.add(new Animator("shot", "idle"), Animator.class);
+            var anim = entity.add(Animator.class).sprite("shot").play("idle");
             anim.depth = 10;
 
-            var bounds = RectI.at(-3, -3, 6, 6);
-            var collider = entity.add(Collider.makeRect(bounds), Collider.class);
-            collider.mask = Collider.Mask.enemy;
+            var collider = entity.add(Collider.class).rect(-3, -3, 6, 6);
+            collider.mask(Collider.Mask.enemy);
 
-            var mover = entity.add(new Mover(), Mover.class);
+            var mover = entity.add(Mover.class);
             mover.speed.x = dir * 100f;
             mover.speed.y = 0;
 
@@ -32,7 +30,7 @@ public class EffectFactory {
                 // destroy the bullet when it moves out of the room it starts in
                 final var startingRoom = worldMap.get().room(position);
                 float roomCheckInterval = 0.1f;
-                entity.add(new Timer(roomCheckInterval, (timer) -> {
+                entity.add(Timer.class).start(roomCheckInterval, (timer) -> {
                     var currentRoom = worldMap.get().room(timer.entity().position);
                     var stillInRoom = (currentRoom != null) && (currentRoom.equals(startingRoom));
                     if (stillInRoom) {
@@ -40,10 +38,10 @@ public class EffectFactory {
                     } else {
                         entity.destroy();
                     }
-                }), Timer.class);
+                });
             } else {
                 // no level container available, destroy the bullet after a few seconds
-                entity.add(new Timer(3f, (self) -> entity.destroy()), Timer.class);
+                entity.add(Timer.class).start(3f, (self) -> entity.destroy());
             }
         }
         return entity;
@@ -58,10 +56,10 @@ public class EffectFactory {
         {
             entity.position.set(x, y);
 
-            var anim = entity.add(new Animator(sprite, animation), Animator.class);
+            var anim = entity.add(Animator.class).sprite(sprite).play(animation);
             anim.depth = 100;
 
-            entity.add(new Timer(anim.duration(), (self) -> self.entity().destroy()), Timer.class);
+            entity.add(Timer.class).start(anim.duration(), (self) -> self.entity().destroy());
         }
         return entity;
     }
@@ -72,10 +70,10 @@ public class EffectFactory {
             entity.position.set(position);
 
             // TODO: figure out which thing we're squishing and use the appropriate animation
-            var anim = entity.add(new Animator("hero", "death"), Animator.class);
+            var anim = entity.add(Animator.class).sprite("hero").play("death");
             anim.depth = 100;
 
-            entity.add(new Timer(anim.duration(), (self) -> self.entity().destroy()), Timer.class);
+            entity.add(Timer.class).start(anim.duration(), (self) -> self.entity().destroy());
         }
         return entity;
     }
@@ -7,7 +7,6 @@ import zendo.games.grotto.components.*;
 import zendo.games.grotto.ecs.Entity;
 import zendo.games.grotto.ecs.World;
 import zendo.games.grotto.utils.Point;
-import zendo.games.grotto.utils.RectI;
 import zendo.games.grotto.utils.Time;
 import zendo.games.grotto.utils.accessors.PointAccessor;
 
@@ -18,29 +17,29 @@ public class ItemFactory {
         {
             entity.position.set(position);
 
-            entity.add(new Item(), Item.class);
+            entity.add(Item.class);
 
-            var anim = entity.add(new Animator("coin", "idle"), Animator.class);
+            var anim = entity.add(Animator.class).sprite("coin").play("idle");
             anim.depth = 10;
 
-            var bounds = RectI.at(-4, 0, 8, 8);
-            var collider = entity.add(Collider.makeRect(bounds), Collider.class);
-            collider.mask = Collider.Mask.item;
+            var collider = entity.add(Collider.class).rect(-4, 0, 8, 8);
+            collider.mask(Collider.Mask.item);
 
-            var mover = entity.add(new Mover(), Mover.class);
+            var mover = entity.add(Mover.class);
 
-            var pickup = entity.add(new Pickupable(), Pickupable.class);
+            var pickup = entity.add(Pickupable.class);
             pickup.collider = collider;
             pickup.pickupBy = Collider.Mask.player;
+            collider.contactMask(Collider.Mask.player);
             pickup.onPickup = (self) -> {
                 Time.pause_for(0.05f);
                 mover.speed.y = 120f;
-                entity.add(new Timer(0.1f, (timer) -> {
+                entity.add(Timer.class).start(0.1f, (timer) -> {
                     world.first(Player.class).addCoin();
 
                     EffectFactory.spriteAnimOneShot(world, entity.position, "coin", "pickup");
                     entity.destroy();
-                }), Timer.class);
+                });
             };
         }
         return entity;
@@ -51,18 +50,18 @@ public class ItemFactory {
         {
             entity.position.set(position.x, position.y - 8);
 
-            entity.add(new Item(), Item.class);
+            entity.add(Item.class);
 
-            var anim = entity.add(new Animator("vase", "idle"), Animator.class);
+            var anim = entity.add(Animator.class).sprite("vase").play("idle");
             anim.depth = 20;
 
-            var bounds = RectI.at(-4, 0, 8, 8);
-            var collider = entity.add(Collider.makeRect(bounds), Collider.class);
-            collider.mask = Collider.Mask.item;
+            var collider = entity.add(Collider.class).rect(-4, 0, 8, 8);
+            collider.mask(Collider.Mask.item);
 
-            var hurtable = entity.add(new Hurtable(), Hurtable.class);
+            var hurtable = entity.add(Hurtable.class);
             hurtable.collider = collider;
             hurtable.hurtBy = Collider.Mask.player_attack;
+            collider.contactMask(Collider.Mask.player_attack);
             hurtable.onHurt = (self) -> {
                 ItemFactory.coin(world, position);
 
@@ -80,7 +79,7 @@ public class ItemFactory {
         {
             entity.position.set(position);
 
-            entity.add(new Item(), Item.class);
+            entity.add(Item.class);
 
             entity.add(new TweenComponent(
                     Tween.to(entity.position, PointAccessor.Y, 0.33f)
@@ -90,16 +89,16 @@ public class ItemFactory {
                             .start(assets.tween)
             ), TweenComponent.class);
 
-            var anim = entity.add(new Animator(name, "idle"), Animator.class);
+            var anim = entity.add(Animator.class).sprite(name).play("idle");
             anim.depth = 1;
 
-            var bounds = RectI.at(-8, -8, 16, 16);
-            var collider = entity.add(Collider.makeRect(bounds), Collider.class);
-            collider.mask = Collider.Mask.item;
+            var collider = entity.add(Collider.class).rect(-8, -8, 16, 16);
+            collider.mask(Collider.Mask.item);
 
-            var pickup = entity.add(new Pickupable(), Pickupable.class);
+            var pickup = entity.add(Pickupable.class);
             pickup.collider = collider;
             pickup.pickupBy = Collider.Mask.player;
+            collider.contactMask(Collider.Mask.player);
             pickup.onPickup = (self) -> {
                 Time.pause_for(0.1f);
                 // TODO: add a new pickup animation
@@ -1,19 +1,32 @@
 package zendo.games.grotto.factories;
 
+import zendo.games.grotto.components.Animator;
 import zendo.games.grotto.components.Collider;
+import zendo.games.grotto.ecs.Access;
 import zendo.games.grotto.ecs.Entity;
 import zendo.games.grotto.ecs.World;
 import zendo.games.grotto.utils.RectI;
 
 public class WorldFactory {
 
+    /**
+     * The game's World, with the component types that can update in parallel declared. That's only Animator for now,
+     * Collisions can't be queried from a declared update and Timer callbacks run whatever game code they were given,
+     * so anything that moves, collides, or waits on a timer is left undeclared and runs alone on the main thread.
+     */
+    public static World world(World.Mode mode) {
+        var world = new World(mode);
+        world.declare(Animator.class, new Access().isolated());
+        return world;
+    }
+
     public static Entity boundary(World world, RectI rect) {
         var entity = world.addEntity();
         {
-            var collider = entity.add(Collider.makeRect(rect), Collider.class);
-            collider.mask = Collider.Mask.solid;
-
             entity.position.set(rect.x, rect.y);
+
+            var collider = entity.add(Collider.makeRect(rect), Collider.class);
+            collider.mask(Collider.Mask.solid);
         }
         return entity;
     }
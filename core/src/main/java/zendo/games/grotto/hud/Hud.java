@@ -0,0 +1,176 @@
+package zendo.games.grotto.hud;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.Array;
+
+import java.util.function.IntSupplier;
+
+/**
+ * Retained heads up display: widgets are set up once and hold on to their texture regions and glyph layouts,
+ * text is only laid out again when it changes (eg. a bound value like the coin count), so drawing it every
+ * frame doesn't look anything up, build strings, or allocate.
+ */
+public class Hud {
+
+    public static abstract class Widget {
+        public boolean visible = true;
+        public float x;
+        public float y;
+
+        abstract void render(SpriteBatch batch);
+    }
+
+    /**
+     * A texture region drawn at a fixed size
+     */
+    public static class Icon extends Widget {
+        private final TextureRegion region;
+        private final float width;
+        private final float height;
+
+        public Icon(TextureRegion region, float x, float y, float width, float height) {
+            this.region = region;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        void render(SpriteBatch batch) {
+            batch.draw(region, x, y, width, height);
+        }
+    }
+
+    /**
+     * A tinted rectangle, drawn by stretching a one pixel texture
+     */
+    public static class Panel extends Widget {
+        private final Texture pixel;
+        private final Color color;
+        private final float width;
+        private final float height;
+
+        public Panel(Texture pixel, Color color, float x, float y, float width, float height) {
+            this.pixel = pixel;
+            this.color = new Color(color);
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        void render(SpriteBatch batch) {
+            batch.setColor(color);
+            batch.draw(pixel, x, y, width, height);
+            batch.setColor(Color.WHITE);
+        }
+    }
+
+    /**
+     * Text that's laid out once and again only when it changes. Either set directly with text(),
+     * or bound to an int with bind(), which is checked each frame and re-laid out when it differs.
+     */
+    public static class Label extends Widget {
+        private final BitmapFont font;
+        private final GlyphLayout layout;
+        private final StringBuilder text;
+        private final Color color;
+
+        private float width;
+        private int align;
+        private boolean middle;
+
+        private IntSupplier value;
+        private int shownValue;
+        private boolean dirty;
+
+        public Label(BitmapFont font, float x, float y) {
+            this.font = font;
+            this.layout = new GlyphLayout();
+            this.text = new StringBuilder();
+            this.color = new Color(Color.WHITE);
+            this.x = x;
+            this.y = y;
+            this.width = 0;
+            this.align = Align.left;
+            this.middle = false;
+            this.value = null;
+            this.dirty = true;
+        }
+
+        public Label text(CharSequence text) {
+            this.text.setLength(0);
+            this.text.append(text);
+            this.value = null;
+            this.dirty = true;
+            return this;
+        }
+
+        public Label bind(IntSupplier value) {
+            this.value = value;
+            this.shownValue = value.getAsInt();
+            this.text.setLength(0);
+            this.text.append(shownValue);
+            this.dirty = true;
+            return this;
+        }
+
+        /**
+         * Align the text within the given width, and optionally center it vertically on y rather than hanging below it
+         */
+        public Label align(float width, int align, boolean middle) {
+            this.width = width;
+            this.align = align;
+            this.middle = middle;
+            this.dirty = true;
+            return this;
+        }
+
+        @Override
+        void render(SpriteBatch batch) {
+            if (value != null) {
+                var current = value.getAsInt();
+                if (current != shownValue) {
+                    shownValue = current;
+                    text.setLength(0);
+                    text.append(current);
+                    dirty = true;
+                }
+            }
+            if (dirty) {
+                layout.setText(font, text, color, width, align, false);
+                dirty = false;
+            }
+            font.draw(batch, layout, x, middle ? y + layout.height / 2f : y);
+        }
+    }
+
+    private final Array<Widget> widgets;
+
+    public Hud() {
+        widgets = new Array<>();
+    }
+
+    public <T extends Widget> T add(T widget) {
+        widgets.add(widget);
+        return widget;
+    }
+
+    public void render(SpriteBatch batch) {
+        for (int i = 0; i < widgets.size; i++) {
+            var widget = widgets.get(i);
+            if (widget.visible) {
+                widget.render(batch);
+            }
+        }
+    }
+
+}
@@ -191,8 +191,9 @@ public class VirtualStick {
     // ------------------------------------------------------------------------
 
     public void update() {
-        lastValue = value;
-        value = Vector2.Zero.cpy();
+        // copied rather than swapped for a new vector, so a stick being polled every frame doesn't allocate
+        lastValue.set(value);
+        value.setZero();
 
         // keys
         for (int i = 0; i < keysLen; i++) {
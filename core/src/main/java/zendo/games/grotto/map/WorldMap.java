@@ -2,6 +2,7 @@ package zendo.games.grotto.map;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.maps.MapGroupLayer;
 import com.badlogic.gdx.maps.MapLayer;
@@ -11,9 +12,12 @@ import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.ObjectIntMap;
 import zendo.games.grotto.Assets;
 import zendo.games.grotto.components.*;
+import zendo.games.grotto.ecs.ComponentHandle;
 import zendo.games.grotto.ecs.Entity;
+import zendo.games.grotto.ecs.EntityHandle;
 import zendo.games.grotto.ecs.World;
 import zendo.games.grotto.factories.CreatureFactory;
 import zendo.games.grotto.factories.ItemFactory;
@@ -82,28 +86,28 @@ public class WorldMap implements Disposable {
 
     public static class Barrier {
         public RectI bounds;
-        public Entity entity;
+        public EntityHandle entity;
         Barrier(RectI bounds) {
             this.bounds = bounds;
-            this.entity = null;
+            this.entity = EntityHandle.none;
         }
     }
 
     public static class Jumpthru {
         public RectI bounds;
-        public Entity entity;
+        public EntityHandle entity;
         Jumpthru(RectI bounds) {
             this.bounds = bounds;
-            this.entity = null;
+            this.entity = EntityHandle.none;
         }
     }
 
     public static class Ladder {
         public RectI bounds;
-        public Entity entity;
+        public EntityHandle entity;
         Ladder(RectI bounds) {
             this.bounds = bounds;
-            this.entity = null;
+            this.entity = EntityHandle.none;
         }
     }
 
@@ -149,6 +153,9 @@ public class WorldMap implements Disposable {
     // TODO: support multiple tilesets per map
     private Tileset tileset;
 
+    // static tile layers of every room, baked once per load
+    private SpriteCache tileCache;
+
     // ------------------------------------------
     // Constructor and interface implementations
     // ------------------------------------------
@@ -175,22 +182,25 @@ public class WorldMap implements Disposable {
                 info.texture.dispose();
             }
         });
+        if (tileCache != null) {
+            tileCache.dispose();
+            tileCache = null;
+        }
     }
 
     public void update(float dt, World world) {
         // only enemies in the same room as the player are active
         var player = world.first(Player.class);
         var playerRoom = room(player.entity().position);
-        var enemy = world.first(Enemy.class);
-        while (enemy != null) {
-            if (enemy.entity() == null) continue;
-            var enemyRoom = room(enemy.entity().position);
-            enemy.entity().active = (enemyRoom == playerRoom);
-            enemy = (Enemy) enemy.next;
+        var enemies = world.query(Enemy.class);
+        for (int i = 0; i < enemies.size(); i++) {
+            var enemy = enemies.entity(i);
+            var enemyRoom = room(enemy.position);
+            enemy.active = (enemyRoom == playerRoom);
         }
     }
 
-    public void clear() {
+    public void clear(World world) {
         spawners.clear();
 
         solids.forEach(solid -> {
@@ -201,22 +211,25 @@ public class WorldMap implements Disposable {
         solids.clear();
 
         jumpthrus.forEach(jumpthru -> {
-            if (jumpthru.entity != null) {
-                jumpthru.entity.destroy();
+            var entity = jumpthru.entity.get(world);
+            if (entity != null) {
+                entity.destroy();
             }
         });
         jumpthrus.clear();
 
         ladders.forEach(ladder -> {
-            if (ladder.entity != null) {
-                ladder.entity.destroy();
+            var entity = ladder.entity.get(world);
+            if (entity != null) {
+                entity.destroy();
             }
         });
         ladders.clear();
 
         barriers.forEach(barrier -> {
-            if (barrier.entity != null) {
-                barrier.entity.destroy();
+            var entity = barrier.entity.get(world);
+            if (entity != null) {
+                entity.destroy();
             }
         });
         barriers.clear();
@@ -228,6 +241,11 @@ public class WorldMap implements Disposable {
         });
         rooms.clear();
 
+        if (tileCache != null) {
+            tileCache.dispose();
+            tileCache = null;
+        }
+
         solidInfos.clear();
         waypointInfos.clear();
 
@@ -275,7 +293,7 @@ public class WorldMap implements Disposable {
         // find the room's bounds collider
         var collider = room.get(Collider.class);
         while (collider != null) {
-            if (collider.mask == Collider.Mask.room_bounds) {
+            if (collider.mask() == Collider.Mask.room_bounds) {
                 break;
             }
             collider = (Collider) collider.next;
@@ -359,23 +377,45 @@ public class WorldMap implements Disposable {
     }
 
     public void destroyItems(World world) {
-        var item = world.first(Item.class);
-        while (item != null) {
-            var next = (Item) item.next;
-            if (item.entity() != null) {
-                item.entity().destroy();
-            }
-            item = next;
+        // backwards, since the destroys might be applied right away and swap entries from the end
+        var items = world.query(Item.class);
+        for (int i = items.size() - 1; i >= 0; i--) {
+            items.entity(i).destroy();
         }
     }
 
+    /**
+     * Fill the World's pools with enough of the short lived things that get spawned during play
+     * (effects, coins, attacks, hurt timers) to cover the busiest room, so fighting doesn't allocate
+     */
+    public void prewarm(World world) {
+        var spawnersPerRoom = new ObjectIntMap<Entity>();
+        var busiest = 0;
+        for (var spawner : spawners) {
+            var room = room(spawner.pos);
+            if (room == null) continue;
+            spawnersPerRoom.getAndIncrement(room, 0, 1);
+            busiest = Math.max(busiest, spawnersPerRoom.get(room, 0));
+        }
+
+        // every spawned thing can leave behind a couple of effects and a coin or two
+        var effects = 16 + 2 * busiest;
+        world.prewarmEntities(effects);
+        world.prewarm(Animator.class, effects);
+        world.prewarm(Timer.class, effects);
+        world.prewarm(Collider.class, busiest);
+        world.prewarm(Mover.class, busiest);
+        world.prewarm(Item.class, busiest);
+        world.prewarm(Pickupable.class, busiest);
+    }
+
     public void spawnBarriers(World world) {
         // TODO: factory?
         for (var barrier : barriers) {
             var entity = world.addEntity();
             var collider = entity.add(Collider.makeRect(barrier.bounds), Collider.class);
-            collider.mask = Collider.Mask.solid;
-            barrier.entity = entity;
+            collider.mask(Collider.Mask.solid).immutable(true);
+            barrier.entity = EntityHandle.of(entity);
         }
     }
 
@@ -384,8 +424,8 @@ public class WorldMap implements Disposable {
         for (var ladder : ladders) {
             var entity = world.addEntity();
             var collider = entity.add(Collider.makeRect(ladder.bounds), Collider.class);
-            collider.mask = Collider.Mask.climbable;
-            ladder.entity = entity;
+            collider.mask(Collider.Mask.climbable).immutable(true);
+            ladder.entity = EntityHandle.of(entity);
         }
     }
 
@@ -394,8 +434,8 @@ public class WorldMap implements Disposable {
         for (var jumpthru : jumpthrus) {
             var entity = world.addEntity();
             var collider = entity.add(Collider.makeRect(jumpthru.bounds), Collider.class);
-            collider.mask = Collider.Mask.jumpthru;
-            jumpthru.entity = entity;
+            collider.mask(Collider.Mask.jumpthru).immutable(true);
+            jumpthru.entity = EntityHandle.of(entity);
         }
     }
 
@@ -409,12 +449,12 @@ public class WorldMap implements Disposable {
                 entity.add(new Animator("platform", "idle"), Animator.class);
 
                 var collider = entity.add(Collider.makeRect(RectI.zero()), Collider.class);
-                collider.mask = Collider.Mask.solid;
+                collider.mask(Collider.Mask.solid | Collider.Mask.moving_solid);
 
                 var waypoints = getWaypointInfosForSolid(info.id);
                 var solid = entity.add(new Solid(info, waypoints), Solid.class);
-                collider.rect().setSize(solid.bounds.w, solid.bounds.h);
-                solid.collider = collider;
+                collider.rect(0, 0, solid.bounds.w, solid.bounds.h);
+                solid.collider = ComponentHandle.of(collider);
 
                 solids.add(solid);
             }
@@ -453,6 +493,39 @@ public class WorldMap implements Disposable {
         } else {
             Gdx.app.error("WorldMap", "Unable to load, unrecognized file type '" + filename + "'");
         }
+
+        if (tileCache != null) {
+            tileCache.dispose();
+        }
+        tileCache = bakeTilemaps(rooms);
+    }
+
+    /**
+     * Compile the tile layers of the rooms into one SpriteCache, each layer getting its own cache in it,
+     * since the tiles don't change after the rooms are created. Returns null if there's nothing to bake.
+     */
+    static SpriteCache bakeTilemaps(List<Entity> rooms) {
+        var size = 0;
+        for (var room : rooms) {
+            for (var component : room.components) {
+                if (component instanceof Tilemap) {
+                    size += ((Tilemap) component).filled();
+                }
+            }
+        }
+        if (size == 0) {
+            return null;
+        }
+
+        var cache = new SpriteCache(size, false);
+        for (var room : rooms) {
+            for (var component : room.components) {
+                if (component instanceof Tilemap) {
+                    ((Tilemap) component).bake(cache);
+                }
+            }
+        }
+        return cache;
     }
 
     // ------------------------------------------
@@ -478,14 +551,20 @@ public class WorldMap implements Disposable {
         }
 
         // create the room entity and initialize it
+        // note: the room is positioned first so that its immutable colliders are indexed in the right place
         var entity = world.addEntity();
+        entity.position.set(info.position);
+//
+//        var pos_x = info.position.x;
+//        var pos_y = info.position.y + (info.tileSize * info.rows);
+//        entity.position.set(pos_x, pos_y);
         {
 //            Gdx.app.log("createRoomEntity", "room: " + info.mapName + ", tilesz: " + info.tileSize + "  collsz: " + info.colliderSize);
 
             // create components
             var tilemap = entity.add(new Tilemap(info.tileSize, info.cols, info.rows), Tilemap.class);
             var collider = entity.add(Collider.makeGrid(info.colliderSize, info.colliderCols, info.colliderRows), Collider.class);
-            collider.mask = Collider.Mask.solid;
+            collider.mask(Collider.Mask.solid).immutable(true);
 
             // optional background image
             if (info.backgroundInfo.texture != null) {
@@ -511,14 +590,25 @@ public class WorldMap implements Disposable {
                 }
             }
 
-            // initialize collider component contents
-            for (int x = 0; x < info.colliderCols; x++) {
-                for (int y = 0; y < info.colliderRows; y++) {
-                    var value = (info.colliderCells[x + y * info.colliderCols] == 1);
-                    collider.setCell(x, y, value);
+            // initialize collider component contents, filling each run of solid cells in a row at once
+            for (int y = 0; y < info.colliderRows; y++) {
+                int x = 0;
+                while (x < info.colliderCols) {
+                    if (info.colliderCells[x + y * info.colliderCols] != 1) {
+                        x++;
+                        continue;
+                    }
+                    int start = x;
+                    while (x < info.colliderCols && info.colliderCells[x + y * info.colliderCols] == 1) {
+                        x++;
+                    }
+                    collider.setCells(start, y, x - start, 1, true);
                 }
             }
 
+            // merge the solid cells into boxes now that the room's collision is loaded
+            collider.grid().mesh();
+
             // add a foreground tile layer if one exists in the info
             if ((info.foregroundTilemapCellTextures != null && info.foregroundTilesetName != null)
              || (info.nearTilemapCellTextureRegions != null)) {
@@ -627,15 +717,11 @@ public class WorldMap implements Disposable {
                     info.tileSize * info.cols,
                     info.tileSize * info.rows
             )), Collider.class);
-            collider.mask = Collider.Mask.room_bounds;
+            collider.mask(Collider.Mask.room_bounds);
             collider.origin.set(-info.position.x, -info.position.y);
+            collider.immutable(true);
             collider.depth = 100;
         }
-        entity.position.set(info.position);
-//
-//        var pos_x = info.position.x;
-//        var pos_y = info.position.y + (info.tileSize * info.rows);
-//        entity.position.set(pos_x, pos_y);
 
         return entity;
     }
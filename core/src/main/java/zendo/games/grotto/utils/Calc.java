@@ -22,6 +22,14 @@ public class Calc {
         return MathUtils.ceil(value);
     }
 
+    public static int floorDiv(int x, int y) {
+        return Math.floorDiv(x, y);
+    }
+
+    public static int ceilDiv(int x, int y) {
+        return -Math.floorDiv(-x, y);
+    }
+
     public static float min(float a, float b) {
         return (a < b) ? a : b;
     }
@@ -0,0 +1,110 @@
+package zendo.games.grotto.components;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import org.junit.Before;
+import org.junit.Test;
+import zendo.games.grotto.ecs.World;
+import zendo.games.grotto.utils.RectI;
+
+import static org.junit.Assert.*;
+
+public class ColliderTest {
+
+    private World world;
+    private Collider grid;
+
+    @Before
+    public void setUp() {
+        world = new World();
+        grid = world.addEntity().add(Collider.makeGrid(8, 4, 4), Collider.class);
+        grid.mask(Collider.Mask.solid);
+    }
+
+    private Collider rect(int x, int y, int w, int h) {
+        var entity = world.addEntity();
+        entity.position.set(x, y);
+        var collider = entity.add(Collider.class).rect(0, 0, w, h);
+        collider.mask(Collider.Mask.player);
+        return collider;
+    }
+
+    @Test
+    public void rectAlignedToTheGridOverlapsItsRow() {
+        // used to find no rows at all, the upper row bound came from the rect's bottom edge
+        grid.setCell(0, 1, true);
+        assertTrue(rect(0, 8, 8, 8).overlaps(grid, 0, 0));
+        assertTrue(grid.overlaps(rect(0, 8, 8, 8), 0, 0));
+    }
+
+    @Test
+    public void rectOverlapsCellsAboveItsBottomRow() {
+        // used to only test the row the rect's bottom edge is in
+        grid.setCell(1, 2, true);
+        var collider = rect(9, 3, 4, 20);
+        assertTrue(collider.overlaps(grid, 0, 0));
+        assertFalse(collider.overlaps(grid, 0, -20));
+        assertTrue(collider.check(Collider.Mask.solid));
+    }
+
+    @Test
+    public void rectOverlapsCellsInsideTheGridOrigin() {
+        // the grid origin moves its cells along with its bounds
+        grid.setCell(0, 0, true);
+        grid.origin.set(16, 8);
+        grid.reindex();
+        assertFalse(rect(0, 0, 8, 8).overlaps(grid, 0, 0));
+        assertTrue(rect(16, 8, 8, 8).overlaps(grid, 0, 0));
+        assertTrue(rect(23, 15, 4, 4).overlaps(grid, 0, 0));
+        assertFalse(rect(24, 8, 8, 8).overlaps(grid, 0, 0));
+    }
+
+    @Test
+    public void rectOutsideTheGridDoesNotOverlap() {
+        grid.setCells(0, 0, 4, 4, true);
+        assertFalse(rect(-8, 0, 8, 8).overlaps(grid, 0, 0));
+        assertFalse(rect(0, 32, 8, 8).overlaps(grid, 0, 0));
+        assertTrue(rect(-8, 0, 8, 8).overlaps(grid, 1, 0));
+    }
+
+    @Test
+    public void meshIsOnlyRebuiltWhenCellsChange() {
+        var cells = grid.grid();
+        grid.setCells(0, 0, 4, 1, true);
+        grid.setCell(0, 1, true);
+        grid.setCell(3, 2, true);
+        cells.mesh();
+
+        // the bottom row can't grow up into the next, so it's a box of its own
+        assertEquals(3, cells.boxCount());
+        assertBox(cells.box(0, RectI.zero()), 0, 0, 4, 1);
+        assertBox(cells.box(1, RectI.zero()), 0, 1, 1, 1);
+        assertBox(cells.box(2, RectI.zero()), 3, 2, 1, 1);
+
+        // rewriting a cell with the value it already has keeps the current mesh
+        grid.setCell(0, 0, true);
+        grid.setCells(1, 0, 3, 1, true);
+        assertEquals(3, cells.boxCount());
+
+        // an actual change discards the boxes until the next mesh
+        grid.setCell(1, 1, true);
+        assertEquals(0, cells.boxCount());
+        cells.mesh();
+        assertEquals(3, cells.boxCount());
+        assertBox(cells.box(1, RectI.zero()), 0, 1, 2, 1);
+    }
+
+    @Test(expected = GdxRuntimeException.class)
+    public void boxesOutsideTheMeshAreRefused() {
+        grid.setCell(0, 0, true);
+        grid.grid().mesh();
+        grid.grid().box(1, RectI.zero());
+    }
+
+    private static void assertBox(RectI box, int x, int y, int w, int h) {
+        assertEquals(x, box.x);
+        assertEquals(y, box.y);
+        assertEquals(w, box.w);
+        assertEquals(h, box.h);
+    }
+
+}
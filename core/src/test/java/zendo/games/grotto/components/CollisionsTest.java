@@ -0,0 +1,200 @@
+package zendo.games.grotto.components;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import org.junit.Test;
+import zendo.games.grotto.ecs.Access;
+import zendo.games.grotto.ecs.Component;
+import zendo.games.grotto.ecs.World;
+import zendo.games.grotto.factories.WorldFactory;
+import zendo.games.grotto.utils.RectI;
+
+import static org.junit.Assert.*;
+
+public class CollisionsTest {
+
+    private static Collider rect(World world, int x, int y, int mask) {
+        var entity = world.addEntity();
+        entity.position.set(x, y);
+        var collider = entity.add(Collider.class).rect(0, 0, 8, 8);
+        collider.mask(mask);
+        return collider;
+    }
+
+    @Test
+    public void queryingColliderMovedDirectlyIsRefreshed() {
+        var world = new World();
+        var wall = rect(world, 200, 0, Collider.Mask.solid);
+        var probe = rect(world, 0, 0, Collider.Mask.player);
+
+        // far outside the bucket margin, without a reindex
+        probe.entity().position.set(200, 0);
+        assertSame(wall, probe.first(Collider.Mask.solid));
+        assertEquals(0, probe.sweepX(Collider.Mask.solid, 4));
+    }
+
+    @Test
+    public void otherColliderMovedDirectlyIsFoundOnceReindexed() {
+        var world = new World();
+        var probe = rect(world, 0, 0, Collider.Mask.player);
+        var wall = rect(world, 200, 0, Collider.Mask.solid);
+
+        wall.entity().position.set(4, 0);
+        wall.reindex();
+        assertSame(wall, probe.first(Collider.Mask.solid));
+
+        // and the per update re-index picks up anything that wasn't
+        wall.entity().position.set(200, 200);
+        world.update(1 / 60f);
+        assertNull(probe.first(Collider.Mask.solid));
+    }
+
+    @Test
+    public void boundaryIsFoundWhereItEndsUp() {
+        var world = new World();
+        var boundary = WorldFactory.boundary(world, RectI.at(300, 300, 16, 16)).get(Collider.class);
+        var bounds = boundary.worldRect();
+        var probe = rect(world, bounds.x + 4, bounds.y + 4, Collider.Mask.player);
+        assertSame(boundary, probe.first(Collider.Mask.solid));
+    }
+
+    @Test
+    public void layersStayConsistentAsCollidersComeAndGo() {
+        Collisions.use_broadphase = false;
+        try {
+            var world = new World();
+            var probe = rect(world, 0, 0, Collider.Mask.player);
+            var colliders = new Collider[12];
+            for (int i = 0; i < colliders.length; i++) {
+                var mask = (i % 3 == 0) ? Collider.Mask.solid | Collider.Mask.item : Collider.Mask.item;
+                colliders[i] = rect(world, 16 * (i + 1), 0, mask);
+            }
+
+            // out of order, so the swap-removes move colliders around within each layer
+            for (var i : new int[] { 3, 0, 11, 5, 6 }) {
+                colliders[i].entity().destroy();
+                colliders[i] = null;
+            }
+            assertEquals(8, world.collisions().count());
+
+            for (int i = 0; i < colliders.length; i++) {
+                var expected = colliders[i];
+                probe.entity().position.set(16 * (i + 1), 0);
+                assertSame("item at " + i, expected, probe.first(Collider.Mask.item));
+                assertSame("solid at " + i, (i % 3 == 0) ? expected : null, probe.first(Collider.Mask.solid));
+            }
+        } finally {
+            Collisions.use_broadphase = true;
+        }
+    }
+
+    @Test(expected = GdxRuntimeException.class)
+    public void contactsNeedADeclaredMask() {
+        var world = new World();
+        var item = rect(world, 0, 0, Collider.Mask.item);
+        item.contactMask(Collider.Mask.player);
+        item.firstContact(Collider.Mask.enemy);
+    }
+
+    @Test
+    public void contactsFollowMovesMadeSinceThePass() {
+        var world = new World();
+        var item = rect(world, 0, 0, Collider.Mask.item);
+        item.contactMask(Collider.Mask.player);
+        var player = rect(world, 100, 0, Collider.Mask.player);
+        world.update(1 / 60f);
+        assertNull(item.firstContact(Collider.Mask.player));
+
+        // the player moving onto the item shows up straight away, not on the next pass
+        player.entity().position.set(4, 0);
+        player.reindex();
+        assertSame(player, item.firstContact(Collider.Mask.player));
+        assertEquals(0, item.contactsBegan().size);
+        world.update(1 / 60f);
+        assertSame(player, item.contactsBegan().first());
+
+        // and so does the item moving off of the player
+        item.entity().position.set(-100, 0);
+        item.reindex();
+        assertNull(item.firstContact(Collider.Mask.player));
+
+        // moves of colliders the item doesn't track don't matter
+        var wall = rect(world, -100, 0, Collider.Mask.solid);
+        wall.entity().position.set(-96, 0);
+        wall.reindex();
+        assertNull(item.firstContact(Collider.Mask.player));
+    }
+
+    @Test
+    public void removedCollidersLeaveEveryContactList() {
+        var world = new World();
+        var player = rect(world, 0, 0, Collider.Mask.player);
+        var coins = new Collider[3];
+        for (int i = 0; i < coins.length; i++) {
+            coins[i] = rect(world, 0, 0, Collider.Mask.item);
+            coins[i].contactMask(Collider.Mask.player);
+        }
+        world.update(1 / 60f);
+        assertEquals(3, player.contactHolders.size);
+
+        // the first one tracked, so the others are moved around in the tracked list
+        coins[0].entity().destroy();
+        world.update(1 / 60f);
+        assertEquals(2, player.contactHolders.size);
+        for (int i = 1; i < coins.length; i++) {
+            assertSame(player, coins[i].contacts().first());
+        }
+
+        player.entity().destroy();
+        world.update(1 / 60f);
+        for (int i = 1; i < coins.length; i++) {
+            assertEquals(0, coins[i].contacts().size);
+            assertEquals(0, coins[i].contactsEnded().size);
+            assertEquals(0, coins[i].contactHolders.size);
+        }
+    }
+
+    @Test
+    public void contactsAreOnlyHeldWhileTheyCanBeSeen() {
+        var world = new World();
+        var player = rect(world, 0, 0, Collider.Mask.player);
+        var coin = rect(world, 0, 0, Collider.Mask.item);
+        coin.contactMask(Collider.Mask.player);
+        world.update(1 / 60f);
+        assertEquals(1, player.contactHolders.size);
+
+        // still there as the ended contact for a pass
+        player.entity().position.set(100, 0);
+        world.update(1 / 60f);
+        assertSame(player, coin.contactsEnded().first());
+        assertEquals(1, player.contactHolders.size);
+        world.update(1 / 60f);
+        assertEquals(0, player.contactHolders.size);
+
+        // and one a refresh found goes with the next refresh that doesn't
+        player.entity().position.set(0, 0);
+        player.reindex();
+        assertSame(player, coin.firstContact(Collider.Mask.player));
+        assertEquals(1, player.contactHolders.size);
+        player.entity().position.set(100, 0);
+        player.reindex();
+        assertNull(coin.firstContact(Collider.Mask.player));
+        assertEquals(0, player.contactHolders.size);
+    }
+
+    public static class Query extends Component {
+        @Override
+        public void update(float dt) {
+            get(Collider.class).check(Collider.Mask.solid);
+        }
+    }
+
+    @Test(expected = GdxRuntimeException.class)
+    public void queriesFromParallelUpdatesThrow() {
+        var world = new World(World.Mode.parallel);
+        world.declare(Query.class, new Access().reads(Collider.class));
+        var collider = rect(world, 0, 0, Collider.Mask.player);
+        collider.entity().add(Query.class);
+        world.update(1 / 60f);
+    }
+
+}
@@ -0,0 +1,116 @@
+package zendo.games.grotto.components;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import zendo.games.grotto.ecs.World;
+import zendo.games.grotto.utils.Point;
+import zendo.games.grotto.utils.RectI;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Once warmed up, moving and probing colliders shouldn't touch the heap or leak pooled objects,
+ * (see RoomAllocationTest for how allocations are counted)
+ */
+public class MoverAllocationTest {
+
+    private static final int moves = 20000;
+    private static final int warmup_replays = 10;
+
+    private com.sun.management.ThreadMXBean threads;
+    private Mover mover;
+    private Collider collider;
+    private Collider grid;
+
+    @Before
+    public void setUp() {
+        var bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        var world = new World();
+        var random = new Random(5);
+
+        var room = world.addEntity();
+        grid = room.add(Collider.makeGrid(8, 24, 16), Collider.class);
+        grid.mask(Collider.Mask.solid);
+        for (int x = 0; x < 24; x++) {
+            grid.setCell(x, 0, true);
+            grid.setCell(x, 15, true);
+        }
+        for (int y = 0; y < 16; y++) {
+            grid.setCell(0, y, true);
+            grid.setCell(23, y, true);
+            grid.setCell(random.nextInt(22) + 1, y, true);
+        }
+        grid.grid().mesh();
+
+        for (int i = 0; i < 6; i++) {
+            var solid = world.addEntity();
+            solid.position.set(16 + random.nextInt(160), 16 + random.nextInt(96));
+            solid.add(Collider.class).rect(0, 0, 4 + random.nextInt(12), 4 + random.nextInt(12)).mask(Collider.Mask.solid);
+        }
+        for (int i = 0; i < 6; i++) {
+            var jumpthru = world.addEntity();
+            jumpthru.position.set(16 + random.nextInt(160), 16 + random.nextInt(96));
+            jumpthru.add(Collider.class).rect(0, 0, 16, 2).mask(Collider.Mask.jumpthru);
+        }
+
+        var entity = world.addEntity();
+        entity.position.set(96, 64);
+        collider = entity.add(Collider.class).rect(-3, 0, 6, 12);
+        collider.mask(Collider.Mask.player);
+        mover = entity.add(Mover.class);
+        mover.collider = collider;
+    }
+
+    private void run(int count, Random random) {
+        // bounce around the room, hitting walls, solids and jumpthrus along the way
+        mover.entity().position.set(96, 64);
+        collider.reindex();
+        for (int i = 0; i < count; i++) {
+            var amount = random.nextInt(33) - 16;
+            if ((i & 1) == 0) {
+                mover.moveX(amount, null);
+            } else {
+                mover.moveY(amount, null);
+            }
+            collider.check(Collider.Mask.solid, 0, -1);
+            collider.first(Collider.Mask.jumpthru, 0, -1);
+        }
+    }
+
+    @Test
+    public void steadyStateMovesDoNotAllocate() {
+        // replay the same moves a few times first so any scratch storage has grown to fit them
+        // and the JIT has finished with them
+        var random = new Random();
+        for (int i = 0; i < warmup_replays; i++) {
+            random.setSeed(2);
+            run(moves, random);
+        }
+
+        var freePoints = Point.pool.getFree();
+        var freeRects = RectI.pool.getFree();
+
+        // calibrate out anything the measurement itself costs
+        var calibrate = threads.getCurrentThreadAllocatedBytes();
+        var overhead = threads.getCurrentThreadAllocatedBytes() - calibrate;
+
+        random.setSeed(2);
+        var before = threads.getCurrentThreadAllocatedBytes();
+        run(moves, random);
+        var allocated = threads.getCurrentThreadAllocatedBytes() - before - overhead;
+
+        assertEquals("bytes allocated over " + moves + " moves", 0, allocated);
+        assertEquals("points obtained and not freed", freePoints, Point.pool.getFree());
+        assertEquals("rects obtained and not freed", freeRects, RectI.pool.getFree());
+    }
+
+}
@@ -0,0 +1,113 @@
+package zendo.games.grotto.components;
+
+import org.junit.Test;
+import zendo.games.grotto.ecs.World;
+import zendo.games.grotto.utils.Calc;
+import zendo.games.grotto.utils.RectI;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Differential test of Mover's swept moves against the pixel-at-a-time stepping they replaced
+ */
+public class MoverSweepTest {
+
+    private static final int cases = 4000;
+
+    private Mover mover;
+    private Collider collider;
+
+    private void build(World world, Random random) {
+        // a room grid that isn't aligned to its tile size, with a few solid cells
+        var room = world.addEntity();
+        room.position.set(random.nextInt(16) - 8, random.nextInt(16) - 8);
+        var grid = room.add(Collider.makeGrid(8, 24, 16), Collider.class);
+        grid.origin.set(random.nextInt(5) - 2, random.nextInt(5) - 2);
+        grid.mask(Collider.Mask.solid);
+        for (int y = 0; y < 16; y++) {
+            for (int x = 0; x < 24; x++) {
+                if (random.nextInt(5) == 0) {
+                    grid.setCell(x, y, true);
+                }
+            }
+        }
+
+        // loose rect solids and jumpthrus scattered over the room
+        for (int i = 0; i < 6; i++) {
+            var solid = world.addEntity();
+            solid.position.set(random.nextInt(192), random.nextInt(128));
+            solid.add(Collider.class).rect(0, 0, 2 + random.nextInt(20), 2 + random.nextInt(20)).mask(Collider.Mask.solid);
+        }
+        for (int i = 0; i < 6; i++) {
+            var jumpthru = world.addEntity();
+            jumpthru.position.set(random.nextInt(192), random.nextInt(128));
+            jumpthru.add(Collider.class).rect(0, 0, 8 + random.nextInt(24), 1 + random.nextInt(4)).mask(Collider.Mask.jumpthru);
+        }
+
+        var entity = world.addEntity();
+        collider = entity.add(Collider.class).rect(RectI.at(-3, 0, 6 + random.nextInt(4), 8 + random.nextInt(8)));
+        collider.mask(Collider.Mask.player);
+        mover = entity.add(Mover.class);
+        mover.collider = collider;
+    }
+
+    @Test
+    public void sweptMovesMatchStepping() {
+        var random = new Random(3);
+        for (int scene = 0; scene < 8; scene++) {
+            var world = new World();
+            build(world, random);
+            var position = mover.entity().position;
+
+            for (int i = 0; i < cases; i++) {
+                position.set(random.nextInt(208) - 8, random.nextInt(144) - 8);
+                collider.reindex();
+                var amount = random.nextInt(49) - 24;
+                var horizontal = random.nextBoolean();
+
+                var expected = horizontal ? stepX(amount) : stepY(amount);
+                var startX = position.x;
+                var startY = position.y;
+                var hit = horizontal ? mover.moveX(amount, null) : mover.moveY(amount, null);
+                var moved = horizontal ? position.x - startX : position.y - startY;
+
+                var description = (horizontal ? "moveX(" : "moveY(") + amount + ") from " + startX + "," + startY + " in scene " + scene;
+                assertEquals(description, Calc.sign(amount) * expected, moved);
+                assertEquals(description, expected != Calc.abs(amount), hit);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // The original Mover stepping, one pixel at a time with a collider check at each step
+    // ------------------------------------------------------------------------
+
+    private int stepX(int amount) {
+        var sign = Calc.sign(amount);
+        var steps = Calc.abs(amount);
+        for (int step = 0; step < steps; step++) {
+            if (collider.check(Collider.Mask.solid, sign * (step + 1), 0)) {
+                return step;
+            }
+        }
+        return steps;
+    }
+
+    private int stepY(int amount) {
+        var sign = Calc.sign(amount);
+        var steps = Calc.abs(amount);
+        for (int step = 0; step < steps; step++) {
+            var isSolid = collider.check(Collider.Mask.solid, 0, sign * (step + 1));
+            var isJumpthru = collider.check(Collider.Mask.jumpthru, 0, sign * (step + 1));
+            var isInsideJumpthru = collider.check(Collider.Mask.jumpthru, 0, sign * step);
+            var isMovingDown = sign < 0;
+            if (isSolid || (isJumpthru && !isInsideJumpthru && isMovingDown)) {
+                return step;
+            }
+        }
+        return steps;
+    }
+
+}
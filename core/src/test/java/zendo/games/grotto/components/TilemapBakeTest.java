@@ -0,0 +1,134 @@
+package zendo.games.grotto.components;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import zendo.games.grotto.ecs.World;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+
+import static org.junit.Assert.*;
+
+/**
+ * The vertices a Tilemap hands to its SpriteCache when it's baked, built headless with a stand-in GL
+ */
+public class TilemapBakeTest {
+
+    private static Texture tiles;
+    private static Texture props;
+
+    @BeforeClass
+    public static void setUpGl() {
+        // textures only need GL and the graphics for handles, parameters and extensions, which can all be no-ops here
+        InvocationHandler noop = (proxy, method, args) -> {
+            var type = method.getReturnType();
+            if (type == int.class)     return 1;
+            if (type == boolean.class) return false;
+            if (type == float.class)   return 0f;
+            return null;
+        };
+        Gdx.gl = Gdx.gl20 = (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[] { GL20.class }, noop);
+        Gdx.graphics = (Graphics) Proxy.newProxyInstance(Graphics.class.getClassLoader(), new Class<?>[] { Graphics.class }, noop);
+        tiles = new Texture(data(64, 32));
+        props = new Texture(data(32, 32));
+    }
+
+    private static TextureData data(int width, int height) {
+        return new TextureData() {
+            @Override public TextureDataType getType() { return TextureDataType.Custom; }
+            @Override public boolean isPrepared() { return true; }
+            @Override public void prepare() {}
+            @Override public Pixmap consumePixmap() { return null; }
+            @Override public boolean disposePixmap() { return false; }
+            @Override public void consumeCustomData(int target) {}
+            @Override public int getWidth() { return width; }
+            @Override public int getHeight() { return height; }
+            @Override public Pixmap.Format getFormat() { return Pixmap.Format.RGBA8888; }
+            @Override public boolean useMipMaps() { return false; }
+            @Override public boolean isManaged() { return false; }
+        };
+    }
+
+    private Tilemap fixture() {
+        // a 5x4 room at (320, 0), drawn 4px up like the shipped rooms, with a gap and a cell from another texture
+        var room = new World().addEntity();
+        room.position.set(320, 0);
+        var tilemap = room.add(new Tilemap(8, 5, 4), Tilemap.class);
+        tilemap.offset.set(0, 4);
+        tilemap.setCells(0, 0, 5, 1, new TextureRegion(tiles, 8, 16, 8, 8));
+        tilemap.setCell(1, 2, new TextureRegion(tiles, 0, 0, 8, 8));
+        tilemap.setCell(3, 1, new TextureRegion(props, 24, 8, 8, 8));
+        tilemap.setCell(4, 0, null);
+        return tilemap;
+    }
+
+    @Test
+    public void oneQuadPerFilledCell() {
+        var tilemap = fixture();
+        assertEquals(6, tilemap.filled());
+        assertEquals(6 * Tilemap.baked_cell_size, tilemap.vertices().length);
+    }
+
+    @Test
+    public void quadsSitAtTheirCellsWorldPositions() {
+        var vertices = fixture().vertices();
+
+        // cells are written column by column, so (1, 2) follows (1, 0)
+        assertQuad(vertices, 0, 320,  4, 0.125f, 0.5f, 0.25f, 0.75f);
+        assertQuad(vertices, 1, 328,  4, 0.125f, 0.5f, 0.25f, 0.75f);
+        assertQuad(vertices, 2, 328, 20, 0f,     0f,   0.125f, 0.25f);
+        assertQuad(vertices, 3, 336,  4, 0.125f, 0.5f, 0.25f, 0.75f);
+        assertQuad(vertices, 4, 344,  4, 0.125f, 0.5f, 0.25f, 0.75f);
+        assertQuad(vertices, 5, 344, 12, 0.75f,  0.25f, 1f,    0.5f);
+    }
+
+    @Test
+    public void quadsFollowTheTilemapWhenRebaked() {
+        var tilemap = fixture();
+        tilemap.entity().position.set(0, 192);
+        assertQuad(tilemap.vertices(), 0, 0, 196, 0.125f, 0.5f, 0.25f, 0.75f);
+    }
+
+    @Test
+    public void textureIsOnlyGivenWhenEveryCellShares() {
+        var tilemap = fixture();
+        assertNull(tilemap.texture());
+
+        tilemap.setCell(3, 1, null);
+        assertSame(tiles, tilemap.texture());
+
+        tilemap.setCell(0, 3, new TextureRegion(props, 0, 0, 8, 8));
+        assertNull(tilemap.texture());
+    }
+
+    // two triangles covering the 8x8 cell at x, y, textured from u, v (top left) to u2, v2 (bottom right)
+    private static void assertQuad(float[] vertices, int cell, float x, float y, float u, float v, float u2, float v2) {
+        var corners = new float[] {
+                x,     y,     u,  v2,
+                x,     y + 8, u,  v,
+                x + 8, y + 8, u2, v,
+                x + 8, y + 8, u2, v,
+                x + 8, y,     u2, v2,
+                x,     y,     u,  v2,
+        };
+        var base = cell * Tilemap.baked_cell_size;
+        for (int i = 0; i < 6; i++) {
+            var vertex = base + i * 5;
+            var description = "cell " + cell + " vertex " + i;
+            assertEquals(description, corners[i * 4],     vertices[vertex],     0f);
+            assertEquals(description, corners[i * 4 + 1], vertices[vertex + 1], 0f);
+            assertEquals(description, Color.WHITE_FLOAT_BITS, vertices[vertex + 2], 0f);
+            assertEquals(description, corners[i * 4 + 2], vertices[vertex + 3], 1e-6f);
+            assertEquals(description, corners[i * 4 + 3], vertices[vertex + 4], 1e-6f);
+        }
+    }
+
+}
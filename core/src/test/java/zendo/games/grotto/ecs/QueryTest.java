@@ -0,0 +1,45 @@
+package zendo.games.grotto.ecs;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class QueryTest {
+
+    static class Health extends Component {}
+    static class Speed extends Component {}
+
+    @Test
+    public void columnsStayLinedUpWithTheirEntities() {
+        var world = new World();
+        var query = world.query(Health.class, Speed.class);
+        // looked up before anything matches, and kept up to date from then on
+        var healths = query.components(Health.class);
+        var speeds = query.components(Speed.class);
+
+        var entities = new Entity[4];
+        for (int i = 0; i < entities.length; i++) {
+            entities[i] = world.addEntity();
+            entities[i].add(new Health(), Health.class);
+            entities[i].add(new Speed(), Speed.class);
+        }
+        entities[0].destroy();
+        entities[2].get(Speed.class).destroy();
+
+        assertEquals(2, query.size());
+        for (int i = 0; i < query.size(); i++) {
+            var entity = query.entity(i);
+            assertTrue(entity == entities[1] || entity == entities[3]);
+            assertSame(entity.get(Health.class), healths.get(i));
+            assertSame(entity.get(Speed.class), speeds.get(i));
+            assertSame(speeds.get(i), query.get(i, Speed.class));
+        }
+    }
+
+    @Test(expected = GdxRuntimeException.class)
+    public void typesOutsideTheQueryAreRefused() {
+        new World().query(Health.class).components(Speed.class);
+    }
+
+}
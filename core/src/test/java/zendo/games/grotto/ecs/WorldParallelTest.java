@@ -0,0 +1,152 @@
+package zendo.games.grotto.ecs;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import org.junit.Test;
+import zendo.games.grotto.components.Timer;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class WorldParallelTest {
+
+    // isolated, each instance only touches itself
+    public static class Spin extends Component {
+        float angle;
+        float speed;
+
+        @Override
+        public void update(float dt) {
+            angle += speed * dt;
+            if (angle > 360) angle -= 360;
+        }
+    }
+
+    // isolated, only moves its own entity
+    public static class Drift extends Component {
+        int dx;
+        int dy;
+
+        @Override
+        public void update(float dt) {
+            entity.position.add(dx, dy);
+            if (Math.abs(entity.position.x) > 1000) dx = -dx;
+            if (Math.abs(entity.position.y) > 1000) dy = -dy;
+        }
+    }
+
+    // reads the Spin on its entity, so it has to come after Spin
+    public static class Follow extends Component {
+        float value;
+
+        @Override
+        public void update(float dt) {
+            var spin = get(Spin.class);
+            value = value * 0.5f + spin.angle * dt;
+        }
+    }
+
+    // undeclared and order dependent, sums every Follow and Drift in list order
+    public static class Total extends Component {
+        float sum;
+        long positions;
+
+        @Override
+        public void update(float dt) {
+            for (var follow = world().first(Follow.class); follow != null; follow = (Follow) follow.next()) {
+                sum = sum * 0.999f + follow.value;
+            }
+            for (var drift = world().first(Drift.class); drift != null; drift = (Drift) drift.next()) {
+                positions = positions * 31 + drift.entity.position.x * 7L + drift.entity.position.y;
+            }
+        }
+    }
+
+    private static World build(World.Mode mode, long seed) {
+        var world = new World(mode);
+        world.declare(Spin.class, new Access().isolated());
+        world.declare(Drift.class, new Access().isolated());
+        world.declare(Follow.class, new Access().reads(Spin.class));
+
+        var random = new Random(seed);
+        // enough instances that the isolated types get split into chunks
+        for (int i = 0; i < World.chunk_size * 8; i++) {
+            var entity = world.addEntity();
+            entity.position.set(random.nextInt(200) - 100, random.nextInt(200) - 100);
+
+            var spin = entity.add(Spin.class);
+            spin.angle = random.nextFloat() * 360;
+            spin.speed = random.nextFloat() * 90 - 45;
+
+            var drift = entity.add(Drift.class);
+            drift.dx = random.nextInt(5) - 2;
+            drift.dy = random.nextInt(5) - 2;
+
+            entity.add(Follow.class);
+
+            // some entities come and go while updating, which is applied at the end of each update
+            if (random.nextInt(8) == 0) {
+                var lifetime = random.nextFloat();
+                entity.add(Timer.class).start(lifetime, timer -> {
+                    var next = timer.world().addEntity();
+                    next.position.set(timer.entity().position);
+                    next.add(Spin.class).speed = 10;
+                    next.add(Follow.class);
+                    timer.entity().destroy();
+                });
+            }
+        }
+        world.addEntity().add(Total.class);
+        return world;
+    }
+
+    private static String state(World world) {
+        var state = new StringBuilder();
+        for (var entity = world.firstEntity(); entity != null; entity = entity.next()) {
+            state.append(entity.position.x).append(',').append(entity.position.y);
+            for (var component : entity.components) {
+                if (component instanceof Spin spin) {
+                    state.append(" s").append(Float.floatToIntBits(spin.angle));
+                } else if (component instanceof Drift drift) {
+                    state.append(" d").append(drift.dx).append(',').append(drift.dy);
+                } else if (component instanceof Follow follow) {
+                    state.append(" f").append(Float.floatToIntBits(follow.value));
+                } else if (component instanceof Total total) {
+                    state.append(" t").append(Float.floatToIntBits(total.sum)).append(',').append(total.positions);
+                }
+            }
+            state.append('\n');
+        }
+        return state.toString();
+    }
+
+    @Test
+    public void parallelMatchesSequential() {
+        var sequential = build(World.Mode.sequential, 1234);
+        var parallel = build(World.Mode.parallel, 1234);
+        assertEquals(state(sequential), state(parallel));
+
+        for (int frame = 0; frame < 120; frame++) {
+            sequential.update(1 / 60f);
+            parallel.update(1 / 60f);
+            assertEquals("frame " + frame, state(sequential), state(parallel));
+        }
+        assertTrue(sequential.stats().entities > World.chunk_size * 8);
+    }
+
+    @Test(expected = GdxRuntimeException.class)
+    public void declaredTypesCantChangeTheWorld() {
+        var world = new World(World.Mode.parallel);
+        world.declare(Spawner.class, new Access());
+        world.addEntity().add(Spawner.class);
+        world.update(1 / 60f);
+    }
+
+    public static class Spawner extends Component {
+        @Override
+        public void update(float dt) {
+            world().addEntity();
+        }
+    }
+
+}
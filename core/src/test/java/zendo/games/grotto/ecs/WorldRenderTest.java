@@ -0,0 +1,241 @@
+package zendo.games.grotto.ecs;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * The order render(SpriteBatch) draws components at the same depth in, built headless with a stand-in GL
+ */
+public class WorldRenderTest {
+
+    private static Texture tiles;
+    private static Texture props;
+    private static SpriteBatch batch;
+    private static SpriteCache cache;
+
+    @BeforeClass
+    public static void setUpGl() {
+        // the batch's buffers are allocated natively
+        GdxNativesLoader.load();
+
+        // the batch's shader has to report that it compiled and linked, everything else can be a no-op
+        InvocationHandler noop = (proxy, method, args) -> {
+            var name = method.getName();
+            if ((name.equals("glGetShaderiv") || name.equals("glGetProgramiv")) && args[2] instanceof IntBuffer) {
+                var param = (int) args[1];
+                ((IntBuffer) args[2]).put(0, (param == GL20.GL_COMPILE_STATUS || param == GL20.GL_LINK_STATUS) ? 1 : 0);
+            }
+            var type = method.getReturnType();
+            if (type == int.class)     return 1;
+            if (type == boolean.class) return false;
+            if (type == float.class)   return 0f;
+            if (type == String.class)  return "";
+            return null;
+        };
+        Gdx.app = (Application) Proxy.newProxyInstance(Application.class.getClassLoader(), new Class<?>[] { Application.class }, noop);
+        Gdx.gl = Gdx.gl20 = (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[] { GL20.class }, noop);
+        Gdx.graphics = (Graphics) Proxy.newProxyInstance(Graphics.class.getClassLoader(), new Class<?>[] { Graphics.class }, noop);
+        tiles = new Texture(data());
+        props = new Texture(data());
+        batch = new SpriteBatch();
+        batch.getProjectionMatrix().setToOrtho2D(0, 0, 320, 180);
+        cache = new SpriteCache(16, false);
+    }
+
+    @AfterClass
+    public static void tearDownGl() {
+        batch.dispose();
+        cache.dispose();
+    }
+
+    private static TextureData data() {
+        return new TextureData() {
+            @Override public TextureDataType getType() { return TextureDataType.Custom; }
+            @Override public boolean isPrepared() { return true; }
+            @Override public void prepare() {}
+            @Override public Pixmap consumePixmap() { return null; }
+            @Override public boolean disposePixmap() { return false; }
+            @Override public void consumeCustomData(int target) {}
+            @Override public int getWidth() { return 32; }
+            @Override public int getHeight() { return 32; }
+            @Override public Pixmap.Format getFormat() { return Pixmap.Format.RGBA8888; }
+            @Override public boolean useMipMaps() { return false; }
+            @Override public boolean isManaged() { return false; }
+        };
+    }
+
+    // a 16x16 sprite at the given spot, or one without bounds if x is negative
+    static class Drawn extends Component {
+        String name;
+        Texture texture;
+        int x;
+        int y;
+        List<String> drawn;
+
+        @Override
+        public boolean bounds(Rectangle out) {
+            if (x < 0) return false;
+            out.set(x, y, 16, 16);
+            return true;
+        }
+
+        @Override
+        public Texture texture() {
+            return texture;
+        }
+
+        @Override
+        public void render(SpriteBatch batch) {
+            drawn.add(name);
+        }
+    }
+
+    // drawn from the cache instead of the batch, noting what was drawing at the time
+    static class Cached extends Drawn {
+        @Override
+        public SpriteCache cache() {
+            return cache;
+        }
+
+        @Override
+        public void render(SpriteCache cache) {
+            drawn.add(name + (batch.isDrawing() ? " over the batch" : "") + (cache.isDrawing() ? "" : " outside the cache"));
+        }
+
+        @Override
+        public void render(SpriteBatch batch) {
+            drawn.add(name + " through the batch");
+        }
+    }
+
+    private final List<String> drawn = new ArrayList<>();
+
+    private Drawn add(World world, String name, Texture texture, int x, int y) {
+        return add(world, new Drawn(), name, texture, x, y);
+    }
+
+    private Drawn add(World world, Drawn component, String name, Texture texture, int x, int y) {
+        world.addEntity().add(component, Drawn.class);
+        component.name = name;
+        component.texture = texture;
+        component.x = x;
+        component.y = y;
+        component.drawn = drawn;
+        return component;
+    }
+
+    private List<String> render(World world) {
+        drawn.clear();
+        batch.begin();
+        world.render(batch);
+        batch.end();
+        return drawn;
+    }
+
+    @Test
+    public void sharedTexturesAreDrawnTogetherWhenNothingIsInBetween() {
+        var world = new World();
+        add(world, "a", tiles, 0,   0);
+        add(world, "b", props, 100, 0);
+        add(world, "c", tiles, 200, 0);
+        add(world, "d", props, 200, 100);
+        assertEquals(List.of("a", "c", "b", "d"), render(world));
+    }
+
+    @Test
+    public void overlapsKeepTheirInsertionOrder() {
+        // c would be drawn under b if it were pulled forward to go with a
+        var world = new World();
+        add(world, "a", tiles, 0,  0);
+        add(world, "b", props, 40, 40);
+        add(world, "c", tiles, 48, 48);
+        add(world, "d", tiles, 200, 0);
+        assertEquals(List.of("a", "d", "b", "c"), render(world));
+    }
+
+    @Test
+    public void unknownTexturesAndBoundsAreNotMovedPast() {
+        var world = new World();
+        add(world, "a", tiles, 0,   0);
+        add(world, "b", null,  100, 0);
+        add(world, "c", tiles, 200, 0);
+        add(world, "d", props, 0,   100);
+        add(world, "e", tiles, -1,  0);
+        add(world, "f", props, 200, 100);
+        assertEquals(List.of("a", "b", "c", "d", "e", "f"), render(world));
+    }
+
+    @Test
+    public void sharedTexturesAreOnlyLookedForSoFarAhead() {
+        var world = new World();
+        add(world, "a", tiles, 0, 0);
+        for (int i = 0; i < World.texture_lookahead; i++) {
+            add(world, "p" + i, props, (i % 16) * 20, 100 + (i / 16) * 20);
+        }
+        add(world, "z", tiles, 200, 0);
+
+        // z is just past a's lookahead, so it's drawn in its place after the props rather than pulled forward
+        var order = render(world);
+        assertEquals("p0", order.get(1));
+        assertEquals("z", order.get(order.size() - 1));
+    }
+
+    @Test
+    public void cachedComponentsAreDrawnWithTheBatchEnded() {
+        var world = new World();
+        add(world, "a", null, 0, 0);
+        add(world, new Cached(), "b", null, 0, 0);
+        add(world, new Cached(), "c", null, 0, 0);
+        add(world, "d", null, 0, 0);
+        add(world, new Cached(), "e", null, 0, 0);
+
+        drawn.clear();
+        batch.begin();
+        world.render(batch);
+        assertTrue("the batch is left drawing", batch.isDrawing());
+        assertFalse("the cache is left drawing", cache.isDrawing());
+        batch.end();
+        assertEquals(List.of("a", "b", "c", "d", "e"), drawn);
+    }
+
+    @Test
+    public void depthChangesKeepTheirInsertionOrder() {
+        var world = new World();
+        var a = add(world, "a", null, 0, 0);
+        var b = add(world, "b", null, 0, 0);
+        var c = add(world, "c", null, 0, 0);
+        assertEquals(List.of("a", "b", "c"), render(world));
+
+        // moves are picked up while walking, so the frame each one happens in can be out of order
+        c.depth = 5;
+        render(world);
+        a.depth = 5;
+        render(world);
+        assertEquals(List.of("b", "a", "c"), render(world));
+
+        b.depth = 5;
+        render(world);
+        assertEquals(List.of("a", "b", "c"), render(world));
+    }
+
+}
@@ -0,0 +1,42 @@
+package zendo.games.grotto.ecs;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class WorldUpdateTest {
+
+    static class Counter {
+        int updates;
+    }
+
+    // the way CreatureFactory adds one-off behaviours, as an anonymous class under the base type
+    private static Component behaviour(Counter counter) {
+        return new Component() {
+            @Override
+            public void update(float dt) {
+                counter.updates++;
+            }
+        };
+    }
+
+    @Test
+    public void anonymousComponentAddedAsBaseTypeIsUpdated() {
+        for (var mode : World.Mode.values()) {
+            var world = new World(mode);
+            var counter = new Counter();
+
+            // a plain instance first, so the type is already known to not override update()
+            world.addEntity().add(new Component(), Component.class);
+            world.update(1 / 60f);
+
+            world.addEntity().add(behaviour(counter), Component.class);
+            world.update(1 / 60f);
+            world.update(1 / 60f);
+
+            assertEquals(mode.name(), 2, counter.updates);
+            assertTrue(Component.Types.updates(Component.Types.id(Component.class)));
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+package zendo.games.grotto.map;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import zendo.games.grotto.components.Player;
+import zendo.games.grotto.ecs.World;
+import zendo.games.grotto.sprites.Content;
+import zendo.games.grotto.utils.Point;
+import zendo.games.grotto.utils.RectI;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Once a room has settled, a whole World.update() shouldn't touch the heap or leak pooled objects.
+ * Tests run with escape analysis off and compiles made in line (see core/build.gradle), so this counts every
+ * allocation the code makes, not just the ones the JIT happened to leave in place by the time it's measured.
+ */
+public class RoomAllocationTest {
+
+    private static final float dt = 1 / 60f;
+    private static final int warmup_frames = 20000;
+    private static final int frames = 5000;
+
+    private com.sun.management.ThreadMXBean threads;
+    private World world;
+
+    @Before
+    public void setUp() {
+        var bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        SteadyRoom.Sprites.load();
+        world = new World();
+        SteadyRoom.spawn(world);
+    }
+
+    @After
+    public void tearDown() {
+        Content.unload();
+    }
+
+    @Test
+    public void settledRoomUpdatesDoNotAllocate() {
+        // long enough for every pool, scratch array and bucket to have grown to fit
+        for (int i = 0; i < warmup_frames; i++) {
+            world.update(dt);
+        }
+        var entities = world.stats().entities;
+        var player = world.first(Player.class);
+        assertNotNull(player);
+
+        var freePoints = Point.pool.getFree();
+        var freeRects = RectI.pool.getFree();
+
+        // calibrate out anything the measurement itself costs
+        var calibrate = threads.getCurrentThreadAllocatedBytes();
+        var overhead = threads.getCurrentThreadAllocatedBytes() - calibrate;
+
+        var before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < frames; i++) {
+            world.update(dt);
+        }
+        var allocated = threads.getCurrentThreadAllocatedBytes() - before - overhead;
+
+        assertEquals("bytes allocated over " + frames + " updates", 0, allocated);
+        assertEquals("entities came or went", entities, world.stats().entities);
+        assertEquals("coins were picked up", 0, player.numCoins());
+        assertEquals("points obtained and not freed", freePoints, Point.pool.getFree());
+        assertEquals("rects obtained and not freed", freeRects, RectI.pool.getFree());
+    }
+
+}
@@ -0,0 +1,84 @@
+package zendo.games.grotto.map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import zendo.games.grotto.components.*;
+import zendo.games.grotto.ecs.World;
+import zendo.games.grotto.factories.WorldFactory;
+import zendo.games.grotto.sprites.Content;
+
+import static org.junit.Assert.*;
+
+/**
+ * The game's own components and declarations, updated in a parallel World, end up exactly where a sequential one puts them
+ */
+public class RoomParallelTest {
+
+    private static final float dt = 1 / 60f;
+    // several of World's chunks worth, so the declared Animators get split across threads
+    private static final int animations = 1024;
+
+    @Before
+    public void setUp() {
+        SteadyRoom.Sprites.load();
+    }
+
+    @After
+    public void tearDown() {
+        Content.unload();
+    }
+
+    private static World build(World.Mode mode) {
+        var world = WorldFactory.world(mode);
+        SteadyRoom.spawn(world);
+
+        // at a few different speeds, so they aren't all on the same frame
+        for (int i = 0; i < animations; i++) {
+            var entity = world.addEntity();
+            entity.position.set(i % SteadyRoom.cols * SteadyRoom.tile_size, 160);
+            var anim = entity.add(new Animator("coin", "idle"), Animator.class);
+            anim.speed = 1 + (i % 3) * 0.5f;
+        }
+        return world;
+    }
+
+    private static String state(World world) {
+        var state = new StringBuilder();
+        for (var entity = world.firstEntity(); entity != null; entity = entity.next()) {
+            state.append(entity.position.x).append(',').append(entity.position.y);
+            var anim = entity.get(Animator.class);
+            if (anim != null && anim.animation() != null) {
+                state.append(" a").append(anim.animation().name)
+                     .append(',').append(anim.animation().frames.indexOf(anim.frame()))
+                     .append(',').append(Float.floatToIntBits(anim.scale.x));
+            }
+            var mover = entity.get(Mover.class);
+            if (mover != null) {
+                state.append(" m").append(Float.floatToIntBits(mover.speed.x))
+                     .append(',').append(Float.floatToIntBits(mover.speed.y));
+            }
+            var collider = entity.get(Collider.class);
+            if (collider != null) {
+                state.append(" c").append(collider.contacts().size);
+            }
+            state.append('\n');
+        }
+        return state.toString();
+    }
+
+    @Test
+    public void parallelMatchesSequential() {
+        var sequential = build(World.Mode.sequential);
+        var parallel = build(World.Mode.parallel);
+        assertEquals(state(sequential), state(parallel));
+
+        for (int frame = 0; frame < 600; frame++) {
+            sequential.update(dt);
+            parallel.update(dt);
+            assertEquals("frame " + frame, state(sequential), state(parallel));
+        }
+        assertNotNull(parallel.first(Player.class));
+    }
+
+}
@@ -0,0 +1,100 @@
+package zendo.games.grotto.map;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import zendo.games.grotto.components.*;
+import zendo.games.grotto.ecs.ComponentHandle;
+import zendo.games.grotto.ecs.World;
+import zendo.games.grotto.factories.CreatureFactory;
+import zendo.games.grotto.factories.ItemFactory;
+import zendo.games.grotto.sprites.Content;
+import zendo.games.grotto.sprites.Sprite;
+import zendo.games.grotto.utils.Point;
+import zendo.games.grotto.utils.RectI;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A room built from the game's own factories that settles into a loop once it's been updated for a while:
+ * the player standing on the floor, coins hanging above them, a platform riding back and forth between its
+ * waypoints with a crate on top, a walker pacing between two walls, and a slime and goblin on the other side
+ * of a wall, waiting on their timers for the player to come into view. Sprites are stand-ins without textures,
+ * so nothing needs GL.
+ */
+class SteadyRoom {
+
+    static final int tile_size = 8;
+    static final int cols = 40;
+    static final int rows = 22;
+    // the column of the wall between the player's side of the room and the creatures'
+    static final int divider = 20;
+
+    static class Sprites extends Content {
+        static void load() {
+            for (var name : new String[] { "hero", "slime", "goblin", "coin", "platform" }) {
+                var sprite = new Sprite();
+                sprite.name = name;
+                for (var anim : new String[] { "idle", "walk", "run", "attack", "hurt" }) {
+                    var region = new TextureRegion();
+                    sprite.animations.add(new Sprite.Anim(anim, new Sprite.Frame(region, 0.1f), new Sprite.Frame(region, 0.15f)));
+                }
+                sprites.add(sprite);
+            }
+        }
+    }
+
+    static void spawn(World world) {
+        var room = world.addEntity();
+        var grid = room.add(Collider.makeGrid(tile_size, cols, rows), Collider.class);
+        grid.mask(Collider.Mask.solid);
+        grid.setCells(0, 0, cols, 1, true);
+        grid.setCells(0, rows - 1, cols, 1, true);
+        grid.setCells(0, 0, 1, rows, true);
+        grid.setCells(cols - 1, 0, 1, rows, true);
+        grid.setCells(divider, 0, 1, rows, true);
+
+        CreatureFactory.player(null, world, Point.at(40, tile_size));
+        for (int i = 0; i < 4; i++) {
+            ItemFactory.coin(world, Point.at(24 + i * 16, 120));
+        }
+        platform(world, RectI.at(48, 64, 24, 8), Point.at(48, 64), Point.at(120, 64));
+        mover(world, Point.at(60, 72), 0);
+        mover(world, Point.at(200, tile_size), 40).onHitX = (self) -> self.speed.x = -self.speed.x;
+
+        CreatureFactory.slime(null, world, Point.at(260, tile_size));
+        CreatureFactory.goblin(null, world, Point.at(290, tile_size));
+
+        var ticker = world.addEntity();
+        ticker.add(Timer.class).start(0.25f, (self) -> self.start(0.25f));
+    }
+
+    private static Mover mover(World world, Point position, float speed) {
+        var entity = world.addEntity();
+        entity.position.set(position);
+        var collider = entity.add(Collider.class).rect(-3, 0, 6, 6);
+        collider.mask(Collider.Mask.item);
+        var mover = entity.add(Mover.class);
+        mover.collider = collider;
+        mover.gravity = -300;
+        mover.speed.x = speed;
+        return mover;
+    }
+
+    // like WorldMap.spawnSolids, from a path of two waypoints
+    private static void platform(World world, RectI bounds, Point from, Point to) {
+        var info = new WorldMap.SolidInfo("platform", bounds, 0.5f);
+        List<WorldMap.WaypointInfo> waypoints = new ArrayList<>();
+        waypoints.add(new WorldMap.WaypointInfo(info.id, 0, from));
+        waypoints.add(new WorldMap.WaypointInfo(info.id, 1, to));
+
+        var entity = world.addEntity();
+        entity.position.set(bounds.x, bounds.y);
+        entity.add(new Animator("platform", "idle"), Animator.class);
+        var collider = entity.add(Collider.makeRect(RectI.zero()), Collider.class);
+        collider.mask(Collider.Mask.solid | Collider.Mask.moving_solid);
+        var solid = entity.add(new Solid(info, waypoints), Solid.class);
+        collider.rect(0, 0, solid.bounds.w, solid.bounds.h);
+        solid.collider = ComponentHandle.of(collider);
+    }
+
+}